@@ -10,6 +10,7 @@ import MyAppointments from './pages/MyAppointments';
 import AdminDashboard from './pages/AdminDashboard';
 import AdminAppointments from './pages/AdminAppointments';
 import AdminUsers from './pages/AdminUsers';
+import AdminAnalytics from './pages/AdminAnalytics';
 
 function PrivateRoute({ children }) {
     const { user, loading } = useAuth();
@@ -76,6 +77,12 @@ function App() {
                             <AdminUsers />
                         </AdminRoute>
                     } />
+                    
+                    <Route path="/admin/analytics" element={
+                        <AdminRoute>
+                            <AdminAnalytics />
+                        </AdminRoute>
+                    } />
                 </Routes>
             </div>
         </div>
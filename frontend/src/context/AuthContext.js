@@ -22,11 +22,12 @@ export function AuthProvider({ children }) {
         console.log('AuthContext.login called');
         const response = await api.post('/auth/login', { email, password });
         console.log('Login response:', response.data);
-        const { token, ...userData } = response.data.data;
+        const { token, refreshToken, ...userData } = response.data.data;
         console.log('Token received:', token.substring(0, 20) + '...');
         console.log('User data:', userData);
         
         localStorage.setItem('token', token);
+        localStorage.setItem('refreshToken', refreshToken);
         localStorage.setItem('user', JSON.stringify(userData));
         api.defaults.headers.common['Authorization'] = `Bearer ${token}`;
         
@@ -42,9 +43,10 @@ export function AuthProvider({ children }) {
             email,
             password
         });
-        const { token, ...userData } = response.data.data;
+        const { token, refreshToken, ...userData } = response.data.data;
         
         localStorage.setItem('token', token);
+        localStorage.setItem('refreshToken', refreshToken);
         localStorage.setItem('user', JSON.stringify(userData));
         api.defaults.headers.common['Authorization'] = `Bearer ${token}`;
         
@@ -53,7 +55,13 @@ export function AuthProvider({ children }) {
     };
     
     const logout = () => {
+        const refreshToken = localStorage.getItem('refreshToken');
+        if (refreshToken) {
+            // Revokes the session server-side; signing out locally does not wait for it
+            api.post('/auth/logout', { refreshToken }).catch(() => {});
+        }
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
         delete api.defaults.headers.common['Authorization'];
         setUser(null);
@@ -0,0 +1,118 @@
+import React, { useState, useEffect } from 'react';
+import api from '../services/api';
+import '../styles/AdminAnalytics.css';
+
+const WEEKDAYS = ['MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY'];
+
+const percent = (value) => (value == null ? '-' : `${Math.round(value * 100)}%`);
+
+function AdminAnalytics() {
+    const [heatmap, setHeatmap] = useState(null);
+    const [months, setMonths] = useState([]);
+    const [loading, setLoading] = useState(true);
+    const [error, setError] = useState('');
+    
+    useEffect(() => {
+        fetchAnalytics();
+    }, []);
+    
+    const fetchAnalytics = async () => {
+        try {
+            const [heatmapResponse, monthlyResponse] = await Promise.all([
+                api.get('/admin/analytics/heatmap'),
+                api.get('/admin/analytics/monthly')
+            ]);
+            setHeatmap(heatmapResponse.data.data);
+            setMonths(monthlyResponse.data.data);
+        } catch (err) {
+            setError('Failed to load analytics');
+        } finally {
+            setLoading(false);
+        }
+    };
+    
+    // Only the hours the business opens on some day, so the grid stays readable
+    const openHours = heatmap
+        ? [...new Set(heatmap.cells.filter((cell) => cell.openMinutes > 0).map((cell) => cell.hour))].sort((a, b) => a - b)
+        : [];
+    
+    const cellFor = (day, hour) => heatmap.cells.find((cell) => cell.dayOfWeek === day && cell.hour === hour);
+    
+    return (
+        <div className="admin-analytics">
+            <h1>Analytics</h1>
+            
+            {error && <div className="error-message">{error}</div>}
+            
+            {loading ? (
+                <p>Loading analytics...</p>
+            ) : heatmap && (
+                <>
+                    <h2>Utilisation by weekday and hour</h2>
+                    <p className="analytics-range">{heatmap.from} to {heatmap.to}</p>
+                    <table className="heatmap">
+                        <thead>
+                            <tr>
+                                <th></th>
+                                {openHours.map((hour) => <th key={hour}>{`${hour}:00`}</th>)}
+                            </tr>
+                        </thead>
+                        <tbody>
+                            {WEEKDAYS.map((day) => (
+                                <tr key={day}>
+                                    <th>{day.charAt(0) + day.slice(1, 3).toLowerCase()}</th>
+                                    {openHours.map((hour) => {
+                                        const cell = cellFor(day, hour);
+                                        return (
+                                            <td
+                                                key={hour}
+                                                title={`${cell.bookings} bookings, ${cell.cancellations} cancelled`}
+                                                style={{ backgroundColor: `rgba(102, 126, 234, ${Math.min(cell.utilisation || 0, 1)})` }}
+                                            >
+                                                {percent(cell.utilisation)}
+                                            </td>
+                                        );
+                                    })}
+                                </tr>
+                            ))}
+                        </tbody>
+                    </table>
+                    
+                    <h2>By month</h2>
+                    <table className="monthly-table">
+                        <thead>
+                            <tr>
+                                <th>Month</th>
+                                <th>Bookings</th>
+                                <th>Cancelled</th>
+                                <th>Utilisation</th>
+                                <th>Average lead time</th>
+                                <th>Within a day</th>
+                                <th>Within a week</th>
+                                <th>Within a month</th>
+                                <th>Longer</th>
+                            </tr>
+                        </thead>
+                        <tbody>
+                            {months.map((month) => (
+                                <tr key={month.month}>
+                                    <td>{month.month}</td>
+                                    <td>{month.bookings}</td>
+                                    <td>{month.cancellations} ({percent(month.cancellationRate)})</td>
+                                    <td>{percent(month.utilisation)}</td>
+                                    <td>{month.averageLeadTimeHours == null ? '-' : `${(month.averageLeadTimeHours / 24).toFixed(1)} days`}</td>
+                                    <td>{month.leadWithinDay}</td>
+                                    <td>{month.leadWithinWeek}</td>
+                                    <td>{month.leadWithinMonth}</td>
+                                    <td>{month.leadLonger}</td>
+                                </tr>
+                            ))}
+                        </tbody>
+                    </table>
+                </>
+            )}
+        </div>
+    );
+}
+
+export default AdminAnalytics;
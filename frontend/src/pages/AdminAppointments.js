@@ -13,7 +13,9 @@ function AdminAppointments() {
     
     const fetchAppointments = async () => {
         try {
-            const response = await api.get('/admin/appointments');
+            const response = await api.get('/admin/appointments', {
+                params: { fields: 'id,userName,userEmail,title,startTime,status' }
+            });
             setAppointments(response.data.data);
         } catch (err) {
             setError('Failed to load appointments');
@@ -19,6 +19,12 @@ function AdminDashboard() {
                     <p>View all registered users</p>
                     <Link to="/admin/users" className="btn-primary">Go to Users</Link>
                 </div>
+                
+                <div className="admin-card">
+                    <h3>Analytics</h3>
+                    <p>Utilisation by weekday and hour, cancellations and lead times</p>
+                    <Link to="/admin/analytics" className="btn-primary">Go to Analytics</Link>
+                </div>
             </div>
         </div>
     );
@@ -1,11 +1,15 @@
 import React, { useState, useEffect } from 'react';
-import api from '../services/api';
+import api, { refreshAccessToken } from '../services/api';
 import '../styles/AdminUsers.css';
 
 function AdminUsers() {
     const [users, setUsers] = useState([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
+    const [importing, setImporting] = useState(false);
+    const [importResult, setImportResult] = useState(null);
+    const [importRejected, setImportRejected] = useState([]);
+    const [importProgress, setImportProgress] = useState(0);
     
     useEffect(() => {
         fetchUsers();
@@ -22,12 +26,113 @@ function AdminUsers() {
         }
     };
     
+    const postImport = (file, contentType) => {
+        const token = localStorage.getItem('token');
+        return fetch(`${api.defaults.baseURL}/admin/users/import`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': contentType,
+                ...(token ? { Authorization: `Bearer ${token}` } : {}),
+            },
+            body: file,
+        });
+    };
+    
+    // The file is sent as the raw body; the server answers with an NDJSON line per row as each
+    // chunk is done, then a line with the totals. Only rejected rows are kept for display.
+    const handleImport = async (e) => {
+        const file = e.target.files[0];
+        e.target.value = '';
+        if (!file) {
+            return;
+        }
+        const contentType = file.name.toLowerCase().endsWith('.csv') ? 'text/csv' : 'application/x-ndjson';
+        setImporting(true);
+        setError('');
+        setImportResult(null);
+        setImportRejected([]);
+        setImportProgress(0);
+        try {
+            let response = await postImport(file, contentType);
+            if (response.status === 401) {
+                await refreshAccessToken();
+                response = await postImport(file, contentType);
+            }
+            if (!response.ok || !response.body) {
+                const body = await response.json().catch(() => null);
+                setError(body?.error || 'Import failed');
+                return;
+            }
+            const reader = response.body.getReader();
+            const decoder = new TextDecoder();
+            let buffer = '';
+            let rows = 0;
+            for (;;) {
+                const { value, done } = await reader.read();
+                if (done) {
+                    break;
+                }
+                buffer += decoder.decode(value, { stream: true });
+                const lines = buffer.split('\n');
+                buffer = lines.pop();
+                const rejected = [];
+                for (const line of lines.filter((text) => text.trim())) {
+                    const result = JSON.parse(line);
+                    if (result.line === undefined) {
+                        setImportResult(result);
+                    } else {
+                        rows++;
+                        if (result.status !== 'CREATED') {
+                            rejected.push(result);
+                        }
+                    }
+                }
+                setImportProgress(rows);
+                if (rejected.length > 0) {
+                    setImportRejected((previous) => previous.concat(rejected));
+                }
+            }
+            fetchUsers();
+        } catch (err) {
+            setError('Import failed');
+        } finally {
+            setImporting(false);
+        }
+    };
+    
     return (
         <div className="admin-users">
             <h1>Manage Users</h1>
             
             {error && <div className="error-message">{error}</div>}
             
+            <div className="user-import">
+                <label className="btn-secondary">
+                    {importing ? `Importing... (${importProgress} rows)` : 'Import users (CSV or NDJSON)'}
+                    <input type="file" accept=".csv,.ndjson,.jsonl" onChange={handleImport} disabled={importing} hidden />
+                </label>
+                {(importResult || importRejected.length > 0) && (
+                    <div className="import-summary">
+                        {importResult && (
+                            <p>
+                                {importResult.created} created, {importResult.duplicates} duplicates,
+                                {' '}{importResult.invalid} invalid of {importResult.total} rows
+                                {' '}({Math.round(importResult.rowsPerSecond)} rows/s)
+                            </p>
+                        )}
+                        {importRejected.length > 0 && (
+                            <ul>
+                                {importRejected.map((row) => (
+                                    <li key={row.line}>
+                                        Line {row.line}{row.email ? ` (${row.email})` : ''}: {row.message}
+                                    </li>
+                                ))}
+                            </ul>
+                        )}
+                    </div>
+                )}
+            </div>
+            
             {loading ? (
                 <p>Loading users...</p>
             ) : users.length === 0 ? (
@@ -1,8 +1,9 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { loadStripe } from '@stripe/stripe-js';
 import { Elements, CardElement, useStripe, useElements } from '@stripe/react-stripe-js';
 import api from '../services/api';
+import { subscribeToSlots } from '../services/slotStream';
 import '../styles/BookAppointment.css';
 
 // Stripe will be loaded dynamically from backend config
@@ -19,6 +20,8 @@ function CardForm({ onSuccess, onError, amount, disabled }) {
     const stripe = useStripe();
     const elements = useElements();
     const [processing, setProcessing] = useState(false);
+    // Reused when the user retries, so the server hands back the same payment intent
+    const paymentKey = useRef(crypto.randomUUID());
     
     const handleSubmit = async (event) => {
         event.preventDefault();
@@ -33,6 +36,8 @@ function CardForm({ onSuccess, onError, amount, disabled }) {
             // Create payment intent on server
             const { data } = await api.post('/payments/create-payment-intent', {
                 amount: amount,
+            }, {
+                headers: { 'Idempotency-Key': paymentKey.current },
             });
             
             const { clientSecret } = data.data;
@@ -114,6 +119,8 @@ function BookAppointment() {
     const [success, setSuccess] = useState(false);
     const [showPaymentModal, setShowPaymentModal] = useState(false);
     const [stripeConfig, setStripeConfig] = useState(null);
+    // A retried submit after a timeout must not book the slot twice
+    const bookingKey = useRef(crypto.randomUUID());
     
     const navigate = useNavigate();
     const APPOINTMENT_FEE = 50.00;
@@ -144,6 +151,21 @@ function BookAppointment() {
         }
     }, [formData.date]);
     
+    // Apply live availability changes for the selected date instead of polling
+    useEffect(() => {
+        if (!formData.date) {
+            return undefined;
+        }
+        return subscribeToSlots([formData.date], (change) => {
+            const changed = new Map(change.slots.map((slot) => [slot.startTime, slot]));
+            setTimeSlots((slots) => slots.map((slot) => changed.get(slot.startTime) || slot));
+            setFormData((data) => {
+                const selected = data.selectedSlot && changed.get(data.selectedSlot.startTime);
+                return selected && !selected.available ? { ...data, selectedSlot: null } : data;
+            });
+        });
+    }, [formData.date]);
+    
     const fetchTimeSlots = async (date) => {
         setSlotsLoading(true);
         setError('');
@@ -176,6 +198,25 @@ function BookAppointment() {
         }
     };
     
+    const handleJoinWaitlist = async (slot) => {
+        if (!formData.title.trim()) {
+            setError('Please enter an appointment title');
+            return;
+        }
+        try {
+            await api.post('/appointments/waitlist', {
+                title: formData.title,
+                description: formData.description,
+                startTime: slot.startTime,
+                endTime: slot.endTime,
+            });
+            setError('');
+            alert('You are on the waitlist. We will book this slot for you if it frees up.');
+        } catch (err) {
+            setError(err.response?.data?.message || 'Failed to join the waitlist');
+        }
+    };
+    
     const handleTitleChange = (e) => {
         setFormData({
             ...formData,
@@ -235,6 +276,8 @@ function BookAppointment() {
                 description: formData.description,
                 startTime: startTime,
                 endTime: endTime,
+            }, {
+                headers: { 'Idempotency-Key': bookingKey.current },
             });
             
             setSuccess(true);
@@ -242,7 +285,15 @@ function BookAppointment() {
                 navigate('/my-appointments');
             }, 2000);
         } catch (err) {
-            setError(err.response?.data?.message || 'Failed to book appointment');
+            const alternatives = err.response?.status === 409 ? err.response.data?.data : null;
+            if (alternatives?.length) {
+                const times = alternatives
+                    .map((slot) => `${slot.startTime.slice(0, 10)} ${formatTime(slot.startTime)}`)
+                    .join(', ');
+                setError(`${err.response.data.error}. Nearest free slots: ${times}`);
+            } else {
+                setError(err.response?.data?.message || 'Failed to book appointment');
+            }
         } finally {
             setLoading(false);
         }
@@ -334,6 +385,16 @@ function BookAppointment() {
                                             <span className="slot-status booked">
                                                 {slot.title}
                                                 <small>({slot.status})</small>
+                                                <button
+                                                    type="button"
+                                                    className="waitlist-btn"
+                                                    onClick={(e) => {
+                                                        e.stopPropagation();
+                                                        handleJoinWaitlist(slot);
+                                                    }}
+                                                >
+                                                    Join waitlist
+                                                </button>
                                             </span>
                                         )}
                                     </div>
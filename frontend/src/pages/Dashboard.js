@@ -15,7 +15,7 @@ function Dashboard() {
     
     const fetchAppointments = async () => {
         try {
-            const response = await api.get('/appointments');
+            const response = await api.get('/appointments', { params: { fields: 'id,title,startTime,status' } });
             setAppointments(response.data.data.slice(0, 5)); // Show last 5 appointments
         } catch (error) {
             console.error('Error fetching appointments:', error);
@@ -6,6 +6,7 @@ function MyAppointments() {
     const [appointments, setAppointments] = useState([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
+    const [feedUrl, setFeedUrl] = useState('');
     
     useEffect(() => {
         fetchAppointments();
@@ -35,6 +36,28 @@ function MyAppointments() {
         }
     };
     
+    const showFeedUrl = async () => {
+        try {
+            const response = await api.get('/calendar/feed');
+            setFeedUrl(response.data.data);
+        } catch (err) {
+            setError('Failed to load calendar link');
+        }
+    };
+    
+    const resetFeedUrl = async () => {
+        if (!window.confirm('Calendars subscribed with the current link will stop updating. Continue?')) {
+            return;
+        }
+        
+        try {
+            const response = await api.post('/calendar/feed/reset');
+            setFeedUrl(response.data.data);
+        } catch (err) {
+            setError('Failed to reset calendar link');
+        }
+    };
+    
     const getStatusClass = (status) => {
         switch (status) {
             case 'SCHEDULED': return 'status-scheduled';
@@ -50,6 +73,24 @@ function MyAppointments() {
             
             {error && <div className="error-message">{error}</div>}
             
+            <div className="calendar-feed">
+                {feedUrl ? (
+                    <>
+                        <label htmlFor="calendar-feed-url">Subscribe in your calendar app with this private link:</label>
+                        <input
+                            id="calendar-feed-url"
+                            type="text"
+                            value={feedUrl}
+                            readOnly
+                            onFocus={(e) => e.target.select()}
+                        />
+                        <button onClick={resetFeedUrl} className="btn-reset-feed">Reset link</button>
+                    </>
+                ) : (
+                    <button onClick={showFeedUrl} className="btn-show-feed">Add to calendar</button>
+                )}
+            </div>
+            
             {loading ? (
                 <p>Loading appointments...</p>
             ) : appointments.length === 0 ? (
@@ -1,6 +1,7 @@
 import React, { useState } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
+import api from '../services/api';
 import '../styles/Auth.css';
 
 function Register() {
@@ -13,6 +14,7 @@ function Register() {
     });
     const [error, setError] = useState('');
     const [loading, setLoading] = useState(false);
+    const [emailTaken, setEmailTaken] = useState(false);
     
     const { register } = useAuth();
     const navigate = useNavigate();
@@ -24,6 +26,19 @@ function Register() {
         });
     };
     
+    // Advisory only; the server still rejects a taken email on submit
+    const checkEmail = async () => {
+        if (!formData.email) {
+            return;
+        }
+        try {
+            const response = await api.get('/auth/email-available', { params: { email: formData.email } });
+            setEmailTaken(response.data.data === false);
+        } catch (err) {
+            setEmailTaken(false);
+        }
+    };
+    
     const handleSubmit = async (e) => {
         e.preventDefault();
         setError('');
@@ -39,7 +54,7 @@ function Register() {
             await register(formData.firstName, formData.lastName, formData.email, formData.password);
             navigate('/dashboard');
         } catch (err) {
-            setError(err.response?.data?.message || 'Registration failed. Please try again.');
+            setError(err.response?.data?.error || err.response?.data?.message || 'Registration failed. Please try again.');
         } finally {
             setLoading(false);
         }
@@ -82,9 +97,14 @@ function Register() {
                             id="email"
                             name="email"
                             value={formData.email}
-                            onChange={handleChange}
+                            onChange={(e) => {
+                                setEmailTaken(false);
+                                handleChange(e);
+                            }}
+                            onBlur={checkEmail}
                             required
                         />
+                        {emailTaken && <div className="field-error">This email is already registered</div>}
                     </div>
                     <div className="form-group">
                         <label htmlFor="password">Password</label>
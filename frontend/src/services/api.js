@@ -24,14 +24,49 @@ api.interceptors.request.use(
     }
 );
 
+// Access tokens are short-lived; concurrent 401s share one refresh
+let refreshing = null;
+
+export const refreshAccessToken = () => {
+    if (!refreshing) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshing = (refreshToken
+            ? axios.post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken })
+            : Promise.reject(new Error('No refresh token')))
+            .then((response) => {
+                const { token, refreshToken: nextRefreshToken } = response.data.data;
+                localStorage.setItem('token', token);
+                localStorage.setItem('refreshToken', nextRefreshToken);
+                api.defaults.headers.common['Authorization'] = `Bearer ${token}`;
+                return token;
+            })
+            .finally(() => {
+                refreshing = null;
+            });
+    }
+    return refreshing;
+};
+
 // Handle response errors
 api.interceptors.response.use(
     (response) => response,
-    (error) => {
+    async (error) => {
         console.log('API Response error:', error.response?.status, error.response?.data);
+        const original = error.config;
+        if (error.response?.status === 401 && original && !original._retried && !original.url?.startsWith('/auth/')) {
+            original._retried = true;
+            try {
+                const token = await refreshAccessToken();
+                original.headers.Authorization = `Bearer ${token}`;
+                return api(original);
+            } catch (refreshError) {
+                console.log('Token refresh failed:', refreshError.response?.data || refreshError.message);
+            }
+        }
         if (error.response?.status === 401) {
             console.log('401 Unauthorized - clearing token and redirecting to login');
             localStorage.removeItem('token');
+            localStorage.removeItem('refreshToken');
             localStorage.removeItem('user');
             window.location.href = '/login';
         }
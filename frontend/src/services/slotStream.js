@@ -0,0 +1,68 @@
+import { refreshAccessToken } from './api';
+
+// Subscribes to live slot changes for the given dates over Server-Sent Events.
+// EventSource cannot send the Authorization header, so the stream is read with fetch.
+// Returns a function that closes the subscription.
+export function subscribeToSlots(dates, onChange) {
+    const controller = new AbortController();
+    const query = dates.map((date) => `dates=${encodeURIComponent(date)}`).join('&');
+
+    const connect = async () => {
+        let refreshed = false;
+        while (!controller.signal.aborted) {
+            try {
+                // Read on every connect: the token may have been refreshed since the last one
+                const token = localStorage.getItem('token');
+                const response = await fetch(`http://localhost:8080/api/appointments/slots/stream?${query}`, {
+                    headers: {
+                        Accept: 'text/event-stream',
+                        ...(token ? { Authorization: `Bearer ${token}` } : {}),
+                    },
+                    signal: controller.signal,
+                });
+                if (response.status === 401 && !refreshed) {
+                    // The access token expired; refresh it and reconnect straight away
+                    refreshed = true;
+                    await refreshAccessToken();
+                    continue;
+                }
+                if (!response.ok || !response.body) {
+                    return;
+                }
+                refreshed = false;
+                const reader = response.body.getReader();
+                const decoder = new TextDecoder();
+                let buffer = '';
+                for (;;) {
+                    const { value, done } = await reader.read();
+                    if (done) {
+                        break;
+                    }
+                    buffer += decoder.decode(value, { stream: true });
+                    let boundary;
+                    while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                        const block = buffer.slice(0, boundary);
+                        buffer = buffer.slice(boundary + 2);
+                        const data = block
+                            .split('\n')
+                            .filter((line) => line.startsWith('data:'))
+                            .map((line) => line.slice(5))
+                            .join('\n');
+                        if (data) {
+                            onChange(JSON.parse(data));
+                        }
+                    }
+                }
+            } catch (err) {
+                if (controller.signal.aborted) {
+                    return;
+                }
+            }
+            // The server closes streams after a timeout; reconnect after a short pause
+            await new Promise((resolve) => setTimeout(resolve, 2000));
+        }
+    };
+
+    connect();
+    return () => controller.abort();
+}
@@ -1,9 +1,19 @@
 package com.appointment;
 
+import com.appointment.config.AppointmentRuntimeHints;
+import com.appointment.config.ArchiveProperties;
+import com.appointment.config.IdempotencyProperties;
+import com.appointment.config.OutboxProperties;
+import com.appointment.config.ScheduleProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@EnableConfigurationProperties({ArchiveProperties.class, OutboxProperties.class, IdempotencyProperties.class,
+        ScheduleProperties.class})
+@ImportRuntimeHints(AppointmentRuntimeHints.class)
 public class AppointmentApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,32 @@
+package com.appointment.config;
+
+import com.appointment.dto.ApiResponse;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.AppointmentSummary;
+import com.appointment.dto.CalendarEvent;
+import com.appointment.event.AppointmentChangedEvent;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Hints for a GraalVM native image ({@code mvn -Pnative native:compile}) that Spring's AOT
+ * processing cannot infer from bean and controller signatures.
+ */
+public class AppointmentRuntimeHints implements RuntimeHintsRegistrar {
+    
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Loaded by Hibernate's JCache region factory, see SecondLevelCacheConfig
+        hints.resources().registerPattern("ehcache.xml");
+        
+        // Instantiated by the JPQL constructor expressions in AppointmentRepository
+        hints.reflection().registerType(AppointmentSummary.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(CalendarEvent.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        
+        // List bodies go out wrapped in MappingJacksonValue, and the outbox serialises events itself
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                ApiResponse.class, AppointmentResponse.class, AppointmentSummary.class, AppointmentChangedEvent.class);
+    }
+}
@@ -0,0 +1,23 @@
+package com.appointment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Moving finished appointments from {@code appointments} to {@code appointments_history}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    /** Appointments that ended longer ago than this are archived. */
+    private Duration horizon = Duration.ofDays(90);
+
+    /** Rows moved per transaction; keeps locks and undo small. */
+    private int batchSize = 500;
+
+    /** Upper bound on batches per run, so a large backlog is drained over several runs. */
+    private int maxBatchesPerRun = 200;
+}
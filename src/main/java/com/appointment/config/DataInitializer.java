@@ -1,13 +1,23 @@
 package com.appointment.config;
 
+import com.appointment.entity.Resource;
 import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
 import com.appointment.repository.UserRepository;
+import com.appointment.service.ResourceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+/**
+ * Seeds the admin user and the default resource. Runs before the instance reports ready, so it
+ * only issues a few indexed lookups once the data exists; instances added by autoscaling can
+ * skip it entirely with {@code app.bootstrap.initialize-data=false}. Checked at runtime rather
+ * than with a condition, which AOT processing would fix at build time.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -15,9 +25,18 @@ public class DataInitializer implements CommandLineRunner {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ResourceService resourceService;
+    private final AppointmentRepository appointmentRepository;
+    
+    @Value("${app.bootstrap.initialize-data:true}")
+    private boolean initializeData;
     
     @Override
     public void run(String... args) {
+        if (!initializeData) {
+            return;
+        }
+        
         // Create admin user if not exists
         if (!userRepository.existsByEmail("admin@appointment.com")) {
             User admin = User.builder()
@@ -30,5 +49,12 @@ public class DataInitializer implements CommandLineRunner {
             userRepository.save(admin);
             log.info("Admin user created: admin@appointment.com / admin123");
         }
+        
+        // Appointments from before resources existed belong to the default resource
+        Resource defaultResource = resourceService.ensureDefaultResource();
+        int assigned = appointmentRepository.assignResourceWhereMissing(defaultResource);
+        if (assigned > 0) {
+            log.info("Assigned {} existing appointments to resource '{}'", assigned, defaultResource.getName());
+        }
     }
 }
@@ -0,0 +1,77 @@
+package com.appointment.config;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.github.cdimascio.dotenv.DotenvEntry;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adds the entries of a {@code .env} file in the working directory to the environment before
+ * any bean is created, so {@code @Value} and {@code ${...}} placeholders see them regardless of
+ * bean order. Entries rank just below system properties, ahead of OS environment variables.
+ * <p>
+ * Registered in {@code META-INF/spring.factories}; runs at startup even when the application
+ * was AOT-processed.
+ */
+public class DotEnvEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    
+    static final String PROPERTY_SOURCE_NAME = "dotenv";
+    
+    // .env names that the application reads under a different property name
+    private static final Map<String, String> ALIASES = Map.of(
+            "STRIPE_SECRET_KEY", "stripe.secret-key",
+            "STRIPE_PUBLISHABLE_KEY", "stripe.publishable-key",
+            "STRIPE_WEBHOOK_SECRET", "stripe.webhook-secret",
+            "JWT_SECRET", "jwt.secret",
+            "JWT_EXPIRATION", "jwt.expiration",
+            "JWT_REFRESH_EXPIRATION", "jwt.refresh-expiration"
+    );
+    
+    private final Log log;
+    
+    public DotEnvEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(DotEnvEnvironmentPostProcessor.class);
+    }
+    
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Dotenv dotenv;
+        try {
+            dotenv = Dotenv.configure()
+                    .directory(".")
+                    .ignoreIfMalformed()
+                    .ignoreIfMissing()
+                    .load();
+        } catch (Exception e) {
+            log.warn("Failed to load .env file: " + e.getMessage() + ". Using default configuration or environment variables.");
+            return;
+        }
+        
+        Map<String, Object> properties = new HashMap<>();
+        for (DotenvEntry entry : dotenv.entries(Dotenv.Filter.DECLARED_IN_ENV_FILE)) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                continue;
+            }
+            properties.put(entry.getKey(), entry.getValue());
+            String alias = ALIASES.get(entry.getKey());
+            if (alias != null) {
+                properties.put(alias, entry.getValue());
+            }
+        }
+        if (properties.isEmpty()) {
+            return;
+        }
+        
+        environment.getPropertySources().addAfter(StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME,
+                new MapPropertySource(PROPERTY_SOURCE_NAME, properties));
+        log.info("Loaded " + properties.size() + " properties from .env");
+    }
+}
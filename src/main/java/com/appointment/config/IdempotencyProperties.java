@@ -0,0 +1,30 @@
+package com.appointment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code Idempotency-Key} handling for non-repeatable POSTs, see {@code IdempotencyFilter}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    /** POST paths that honour the header; other requests pass through untouched. */
+    private List<String> paths = List.of("/api/appointments", "/api/payments/create-payment-intent");
+
+    /** How long a completed response is replayed for. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /** Upper bound on remembered keys; the oldest completed entries are dropped first. */
+    private int maxEntries = 10_000;
+
+    /** How long a duplicate waits for the first request to finish before giving up with 409. */
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    /** Keys longer than this are rejected. */
+    private int maxKeyLength = 255;
+}
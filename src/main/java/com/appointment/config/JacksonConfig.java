@@ -0,0 +1,58 @@
+package com.appointment.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Response formats. JSON stays the default; clients that send {@code Accept: application/cbor}
+ * or {@code Accept: application/x-jackson-smile} get the same documents in a binary encoding.
+ * <p>
+ * The binary converters are built from Boot's {@link Jackson2ObjectMapperBuilder}, so they share
+ * the JSON mapper's modules and settings (dates stay ISO strings in every format). Declaring
+ * them as beans replaces the converters Spring MVC would otherwise add with plain mappers.
+ * Smile additionally back-references repeated short values, so the user name and email
+ * repeated on every appointment in a list are written once. CBOR is left at its defaults
+ * because the equivalent stringref extension is not understood by most non-Java decoders.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces reflective getter calls with generated lambdas. Registered on every mapper
+     * built by Boot, including the binary ones below.
+     */
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Responses not wrapped in a {@code MappingJacksonValue} carry no filters; this lets types
+     * annotated with {@code @JsonFilter} serialise in full in that case.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer unfilteredByDefault() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()).build());
+    }
+}
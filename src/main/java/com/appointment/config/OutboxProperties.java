@@ -0,0 +1,38 @@
+package com.appointment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Relaying {@code outbox_events} to the configured {@code OutboxPublisher}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    /** Events handed to the publisher per call, and per relay transaction. */
+    private int batchSize = 100;
+
+    /** Upper bound on batches per relay run before yielding to the next poll. */
+    private int maxBatchesPerRun = 50;
+
+    /** First pause after a failed publish; doubles on each further failure. */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    private Duration maxBackoff = Duration.ofMinutes(1);
+
+    /**
+     * How long the relay waits at a gap in the ids. Ids are handed out when a row is
+     * inserted, not when its transaction commits, so a gap is usually a transaction that is
+     * still running; once this has passed the gap is taken to be a rollback and skipped.
+     */
+    private Duration gapGrace = Duration.ofSeconds(5);
+
+    /** Published events are deleted after this long. */
+    private Duration retention = Duration.ofDays(7);
+
+    /** Rows deleted per purge transaction. */
+    private int purgeBatchSize = 1000;
+}
@@ -0,0 +1,79 @@
+package com.appointment.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements and total statement time of each request. Every request
+ * is recorded in the {@code sql.statements.per.request} summary; requests that exceed
+ * {@code app.sql.request-statement-warn-threshold} statements are logged as warnings.
+ * <p>
+ * Counters are thread-local and only reset at the start of a request, so tests can
+ * read them after a MockMvc call (see QueryBudget in the test sources).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+    
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+    
+    public QueryCountFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql.request-statement-warn-threshold:20}") int warnThreshold
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryCountHolder.clear();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCount count = QueryCountHolder.getGrandTotal();
+            String uri = uriPattern(request);
+            
+            DistributionSummary.builder("sql.statements.per.request")
+                    .description("SQL statements issued per HTTP request")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(count.getTotal());
+            
+            if (count.getTotal() > warnThreshold) {
+                log.warn("{} {} issued {} SQL statements ({} ms)",
+                        request.getMethod(), uri, count.getTotal(), count.getTime());
+            } else if (log.isDebugEnabled()) {
+                log.debug("{} {} issued {} SQL statements ({} ms)",
+                        request.getMethod(), uri, count.getTotal(), count.getTime());
+            }
+        }
+    }
+    
+    private String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,166 @@
+package com.appointment.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * <p>
+ * A replica is used only while its last lag check (see {@link #checkReplicas()}) was
+ * within {@code maxLag}; if none qualifies, or the chosen replica refuses a connection,
+ * the primary serves the read.
+ * A user who wrote within {@code readYourWritesWindow} keeps reading from the primary,
+ * so a booking is visible in that user's own listings straight away.
+ * <p>
+ * The routing decision is made when a connection is requested, so this must sit behind
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise
+ * the connection is taken before the transaction's read-only flag is set.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<ReplicaTarget> replicas;
+    private final double maxLagSeconds;
+    private final long readYourWritesWindowNanos;
+    private final String lagQuery;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                        Duration maxLag, Duration readYourWritesWindow, String lagQuery) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new ReplicaTarget(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+        this.lagQuery = lagQuery;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReplicaTarget replica = route();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica {} unavailable, falling back to primary: {}", replica.name, e.getMessage());
+            replica.healthy = false;
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Measures the lag of every replica and marks it usable or not. Also drops
+     * read-your-writes entries that have run past their window.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (ReplicaTarget replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                double lagSeconds = rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+                boolean healthy = lagSeconds <= maxLagSeconds;
+                if (healthy != replica.healthy) {
+                    log.info("Replica {} is now {} (lag {}s)", replica.name, healthy ? "in service" : "out of service", lagSeconds);
+                }
+                replica.healthy = healthy;
+            } catch (SQLException e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} lag check failed: {}", replica.name, e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+        long now = System.nanoTime();
+        lastWriteByUser.values().removeIf(writtenAt -> now - writtenAt > readYourWritesWindowNanos);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (ReplicaTarget replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private ReplicaTarget route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite();
+            }
+            return null;
+        }
+        if (replicas.isEmpty() || wroteRecently()) {
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaTarget candidate = replicas.get((start + i) % size);
+            if (candidate.healthy) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void recordWrite() {
+        String user = currentUser();
+        if (user != null) {
+            lastWriteByUser.put(user, System.nanoTime());
+        }
+    }
+
+    private boolean wroteRecently() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteByUser.get(user);
+        return writtenAt != null && System.nanoTime() - writtenAt <= readYourWritesWindowNanos;
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static final class ReplicaTarget {
+        private final String name;
+        private final DataSource dataSource;
+        // Out of service until a lag check has vouched for it
+        private volatile boolean healthy;
+
+        private ReplicaTarget(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.appointment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas used for {@code @Transactional(readOnly = true)} work. With no replicas
+ * configured every transaction goes to the primary ({@code spring.datasource}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** Replicas lagging further behind the primary than this are skipped. */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /** Read-only transactions of a user who wrote within this window stay on the primary. */
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+
+    /** Returns the replica's replay lag in seconds. The default works for PostgreSQL streaming replication. */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,47 @@
+package com.appointment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * When appointments can be booked, see {@code BusinessCalendar}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.schedule")
+public class ScheduleProperties {
+
+    /** Length of one slot and step between slot starts: 15, 30 or 60 minutes. */
+    private Duration slotLength = Duration.ofMinutes(60);
+
+    /** Opening time on days without their own entry in {@code days}. */
+    private LocalTime opens = LocalTime.of(8, 0);
+
+    /** Closing time on days without their own entry in {@code days}. */
+    private LocalTime closes = LocalTime.of(18, 0);
+
+    /** Per-weekday hours, overriding {@code opens} and {@code closes}. */
+    private Map<DayOfWeek, DayHours> days = new EnumMap<>(DayOfWeek.class);
+
+    /** Dates with no bookable slots at all. */
+    private Set<LocalDate> holidays = new HashSet<>();
+
+    @Data
+    public static class DayHours {
+
+        /** Closed all day; {@code opens} and {@code closes} are ignored. */
+        private boolean closed;
+
+        private LocalTime opens;
+
+        private LocalTime closes;
+    }
+}
@@ -0,0 +1,16 @@
+package com.appointment.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs ({@code @Scheduled}); switched off with {@code app.scheduling.enabled=false}.
+ * They share Boot's scheduler, sized by {@code spring.task.scheduling.pool.size} so that every
+ * job has a thread and a long batch run never delays the frequent ones.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.scheduling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,34 @@
+package com.appointment.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Resolves {@code hibernate.javax.cache.uri} through Spring's resource loader. Hibernate
+ * itself only understands {@code classpath://} and otherwise relies on a JVM-wide
+ * {@code classpath:} URL handler, which exists only once embedded Tomcat has started.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    
+    private static final String CACHE_URI = "hibernate.javax.cache.uri";
+    
+    @Bean
+    public HibernatePropertiesCustomizer cacheUriCustomizer(ResourceLoader resourceLoader) {
+        return properties -> {
+            if (properties.get(CACHE_URI) instanceof String location
+                    && location.startsWith(ResourceLoader.CLASSPATH_URL_PREFIX)) {
+                try {
+                    properties.put(CACHE_URI, resourceLoader.getResource(location).getURL().toString());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Second-level cache configuration not found: " + location, e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.appointment.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the application DataSource in a datasource-proxy that counts statements per
+ * thread (read by {@link QueryCountFilter}) and logs statements slower than
+ * {@code app.sql.slow-query-threshold-ms} through the {@code sql.slow} logger.
+ */
+@Configuration
+public class SqlStatisticsConfig {
+    
+    public static final String DATA_SOURCE_NAME = "appointment-db";
+    
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(
+            @Value("${app.sql.slow-query-threshold-ms:200}") long slowQueryThresholdMs
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource
+                        && !(bean instanceof ProxyDataSource)
+                        && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(DATA_SOURCE_NAME)
+                            .countQuery()
+                            .logSlowQueryBySlf4j(slowQueryThresholdMs, TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN, "sql.slow")
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
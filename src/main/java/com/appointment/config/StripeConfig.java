@@ -3,21 +3,20 @@ package com.appointment.config;
 import com.stripe.Stripe;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @Slf4j
 public class StripeConfig {
     
+    // From STRIPE_SECRET_KEY in the OS environment or .env (see DotEnvEnvironmentPostProcessor)
+    @Value("${stripe.secret-key:}")
+    private String apiKey;
+    
     @PostConstruct
     public void init() {
-        // Try to get from system property first (set by DotEnvConfig or environment variable)
-        String apiKey = System.getProperty("STRIPE_SECRET_KEY");
-        if (apiKey == null || apiKey.isEmpty()) {
-            apiKey = System.getenv("STRIPE_SECRET_KEY");
-        }
-        
-        if (apiKey != null && !apiKey.isEmpty() && !apiKey.startsWith("sk_test_your")) {
+        if (!apiKey.isEmpty() && !apiKey.startsWith("sk_test_your")) {
             Stripe.apiKey = apiKey;
             log.info("Stripe API key configured successfully");
         } else {
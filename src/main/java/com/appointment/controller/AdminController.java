@@ -1,20 +1,46 @@
 package com.appointment.controller;
 
 import com.appointment.dto.ApiResponse;
+import com.appointment.dto.AppointmentFields;
 import com.appointment.dto.AppointmentRequest;
 import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.AppointmentSearchResponse;
+import com.appointment.dto.MonthlyUtilisation;
+import com.appointment.dto.ResourceRequest;
+import com.appointment.dto.ResourceResponse;
+import com.appointment.dto.UtilisationHeatmap;
+import com.appointment.dto.WaitlistResponse;
+import com.appointment.entity.Appointment;
 import com.appointment.entity.User;
 import com.appointment.repository.UserRepository;
+import com.appointment.service.AppointmentArchiveService;
 import com.appointment.service.AppointmentService;
+import com.appointment.service.ResourceService;
+import com.appointment.service.WaitlistService;
+import com.appointment.service.analytics.UtilisationAnalyticsService;
+import com.appointment.service.importing.UserImportService;
+import com.appointment.service.search.AppointmentSearchIndex;
+import com.appointment.service.search.AppointmentSearchService;
+import com.appointment.service.token.RefreshTokenService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,15 +50,70 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
     
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    
     private final AppointmentService appointmentService;
     private final UserRepository userRepository;
+    private final ResourceService resourceService;
+    private final AppointmentArchiveService archiveService;
+    private final AppointmentSearchService searchService;
+    private final WaitlistService waitlistService;
+    private final RefreshTokenService refreshTokenService;
+    private final UserImportService userImportService;
+    private final UtilisationAnalyticsService analyticsService;
     
     @GetMapping("/appointments")
-    public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getAllAppointments() {
-        List<AppointmentResponse> appointments = appointmentService.getAllAppointments();
+    public ResponseEntity<MappingJacksonValue> getAllAppointments(@RequestParam(required = false) String fields) {
+        AppointmentFields selection = AppointmentFields.parse(fields);
+        List<?> appointments = selection.coveredBySummary()
+                ? appointmentService.getAllAppointmentSummaries()
+                : appointmentService.getAllAppointments();
+        MappingJacksonValue body = new MappingJacksonValue(ApiResponse.success(appointments));
+        body.setFilters(selection.filters());
+        return ResponseEntity.ok(body);
+    }
+    
+    @GetMapping("/appointments/search")
+    public ResponseEntity<ApiResponse<AppointmentSearchResponse>> searchAppointments(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) Appointment.AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        AppointmentSearchResponse response = searchService.search(AppointmentSearchIndex.Criteria.builder()
+                .text(q)
+                .userEmail(email)
+                .status(status)
+                .from(from)
+                .to(to)
+                .build(), limit);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
+    // Archived appointments live in appointments_history and are only reachable here
+    @GetMapping("/appointments/history")
+    public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getAppointmentHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        List<AppointmentResponse> appointments = archiveService.getHistory(from, to);
+        return ResponseEntity.ok(ApiResponse.success(appointments));
+    }
+    
+    @GetMapping("/users/{userId}/appointments/history")
+    public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getUserAppointmentHistory(@PathVariable Long userId) {
+        List<AppointmentResponse> appointments = archiveService.getUserHistory(userId);
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
     
+    @PostMapping("/appointments/archive")
+    public ResponseEntity<ApiResponse<Integer>> archiveAppointments() {
+        int archived = archiveService.archiveOldAppointments();
+        return ResponseEntity.ok(ApiResponse.success("Archived " + archived + " appointments", archived));
+    }
+    
     @PutMapping("/appointments/{id}")
     public ResponseEntity<ApiResponse<AppointmentResponse>> updateAppointment(
             @PathVariable Long id,
@@ -56,6 +137,89 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(users));
     }
     
+    /**
+     * Registers users from the request body: CSV with a header row ({@code text/csv}) or one
+     * JSON object per line ({@code application/x-ndjson}). Answers in NDJSON with a result per
+     * row, sent chunk by chunk as the import runs, and the totals on the last line.
+     * <p>
+     * Written on the request thread rather than as a {@code StreamingResponseBody}, since a
+     * large import can outlast the async request timeout.
+     */
+    @PostMapping(value = "/users/import", consumes = {"text/csv", "application/x-ndjson"})
+    public void importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            HttpServletResponse response
+    ) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(CSV)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        // A bad CSV header is answered with 400 before the status line is sent
+        UserImportService.Upload upload = userImportService.open(body, format);
+        response.setContentType("application/x-ndjson");
+        userImportService.importUsers(upload, response.getOutputStream());
+    }
+    
+    // Signs the user out on every device; their access tokens stop working within one sync interval
+    @PostMapping("/users/{userId}/revoke-tokens")
+    public ResponseEntity<ApiResponse<Integer>> revokeUserTokens(@PathVariable Long userId) {
+        int revoked = refreshTokenService.revokeAllForUser(userId);
+        return ResponseEntity.ok(ApiResponse.success("Revoked " + revoked + " sessions", revoked));
+    }
+    
+    @PostMapping("/resources")
+    public ResponseEntity<ApiResponse<ResourceResponse>> createResource(@Valid @RequestBody ResourceRequest request) {
+        ResourceResponse response = resourceService.createResource(request);
+        return ResponseEntity.ok(ApiResponse.success("Resource created successfully", response));
+    }
+    
+    @DeleteMapping("/resources/{id}")
+    public ResponseEntity<ApiResponse<Void>> deactivateResource(@PathVariable Long id) {
+        resourceService.deactivateResource(id);
+        return ResponseEntity.ok(ApiResponse.success("Resource deactivated successfully", null));
+    }
+    
+    // Higher priority moves a waiting user ahead of everyone with a lower one
+    @PutMapping("/waitlist/{id}/priority")
+    public ResponseEntity<ApiResponse<WaitlistResponse>> setWaitlistPriority(
+            @PathVariable Long id,
+            @RequestParam int priority
+    ) {
+        WaitlistResponse response = waitlistService.setPriority(id, priority);
+        return ResponseEntity.ok(ApiResponse.success("Waitlist priority updated", response));
+    }
+    
+    // Weekday-by-hour utilisation over [from, to); defaults to the last twelve months
+    @GetMapping("/analytics/heatmap")
+    public ResponseEntity<ApiResponse<UtilisationHeatmap>> getUtilisationHeatmap(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long resourceId
+    ) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusMonths(12);
+        return ResponseEntity.ok(ApiResponse.success(analyticsService.heatmap(start, end, resourceId)));
+    }
+    
+    // Bookings, cancellation rate, utilisation and lead times per month, from and to included (e.g. 2026-01)
+    @GetMapping("/analytics/monthly")
+    public ResponseEntity<ApiResponse<List<MonthlyUtilisation>>> getMonthlyUtilisation(
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            @RequestParam(required = false) Long resourceId
+    ) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        return ResponseEntity.ok(ApiResponse.success(analyticsService.monthly(start, end, resourceId)));
+    }
+    
+    // Recomputes the analytics rollups from every appointment, archived ones included
+    @PostMapping("/analytics/rebuild")
+    public ResponseEntity<ApiResponse<Long>> rebuildAnalytics() {
+        long counted = analyticsService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Rebuilt analytics from " + counted + " appointments", counted));
+    }
+    
     // Simple UserResponse DTO for admin user listing
     @Data
     @NoArgsConstructor
@@ -3,13 +3,20 @@ package com.appointment.controller;
 import com.appointment.dto.*;
 import com.appointment.repository.UserRepository;
 import com.appointment.service.AppointmentService;
+import com.appointment.service.SlotStreamService;
+import com.appointment.service.WaitlistService;
+import com.appointment.service.availability.AvailabilityService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,6 +28,9 @@ public class AppointmentController {
     
     private final AppointmentService appointmentService;
     private final UserRepository userRepository;
+    private final SlotStreamService slotStreamService;
+    private final WaitlistService waitlistService;
+    private final AvailabilityService availabilityService;
     
     @PostMapping
     public ResponseEntity<ApiResponse<AppointmentResponse>> createAppointment(
@@ -35,14 +45,44 @@ public class AppointmentController {
         return ResponseEntity.ok(ApiResponse.success("Appointment created successfully", response));
     }
     
+    // Queues for a taken slot; the user is booked into it if the current appointment is cancelled
+    @PostMapping("/waitlist")
+    public ResponseEntity<ApiResponse<WaitlistResponse>> joinWaitlist(
+            @Valid @RequestBody AppointmentRequest request,
+            Authentication authentication
+    ) {
+        WaitlistResponse response = waitlistService.join(currentUserId(authentication), request);
+        return ResponseEntity.ok(ApiResponse.success("Added to the waitlist", response));
+    }
+    
+    @GetMapping("/waitlist")
+    public ResponseEntity<ApiResponse<List<WaitlistResponse>>> getMyWaitlist(Authentication authentication) {
+        return ResponseEntity.ok(ApiResponse.success(waitlistService.getUserEntries(currentUserId(authentication))));
+    }
+    
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<ApiResponse<Void>> leaveWaitlist(@PathVariable Long id, Authentication authentication) {
+        waitlistService.leave(currentUserId(authentication), id);
+        return ResponseEntity.ok(ApiResponse.success("Removed from the waitlist", null));
+    }
+    
+    // fields=id,title,... returns only those properties; summary-only selections skip the full entity query
     @GetMapping
-    public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getMyAppointments(Authentication authentication) {
+    public ResponseEntity<MappingJacksonValue> getMyAppointments(
+            @RequestParam(required = false) String fields,
+            Authentication authentication
+    ) {
+        AppointmentFields selection = AppointmentFields.parse(fields);
         String email = authentication.getName();
         Long userId = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"))
                 .getId();
-        List<AppointmentResponse> appointments = appointmentService.getUserAppointments(userId);
-        return ResponseEntity.ok(ApiResponse.success(appointments));
+        List<?> appointments = selection.coveredBySummary()
+                ? appointmentService.getUserAppointmentSummaries(userId)
+                : appointmentService.getUserAppointments(userId);
+        MappingJacksonValue body = new MappingJacksonValue(ApiResponse.success(appointments));
+        body.setFilters(selection.filters());
+        return ResponseEntity.ok(body);
     }
     
     @GetMapping("/{id}")
@@ -68,10 +108,39 @@ public class AppointmentController {
     
     @GetMapping("/slots/{date}")
     public ResponseEntity<ApiResponse<List<TimeSlotDto>>> getTimeSlots(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Long resourceId
     ) {
         LocalDateTime dateTime = date.atStartOfDay();
-        List<TimeSlotDto> slots = appointmentService.getTimeSlotsForDate(dateTime);
+        List<TimeSlotDto> slots = appointmentService.getTimeSlotsForDate(dateTime, resourceId);
         return ResponseEntity.ok(ApiResponse.success(slots));
     }
+    
+    // The earliest free intervals of a given length, across days; answered from the free-gap index
+    @GetMapping("/slots/next")
+    public ResponseEntity<ApiResponse<List<TimeSlotDto>>> getNextAvailableSlots(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "60") int durationMinutes,
+            @RequestParam(defaultValue = "5") int count,
+            @RequestParam(required = false) Long resourceId
+    ) {
+        List<TimeSlotDto> slots = availabilityService.findNextAvailable(
+                resourceId, after, Duration.ofMinutes(durationMinutes), count);
+        return ResponseEntity.ok(ApiResponse.success(slots));
+    }
+    
+    // Server-Sent Events: a "slots" event with the changed slots whenever a subscribed date changes
+    @GetMapping(value = "/slots/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> dates,
+            @RequestParam(required = false) Long resourceId
+    ) {
+        return slotStreamService.subscribe(dates, resourceId);
+    }
+    
+    private Long currentUserId(Authentication authentication) {
+        return userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"))
+                .getId();
+    }
 }
@@ -4,13 +4,14 @@ import com.appointment.dto.*;
 import com.appointment.entity.User;
 import com.appointment.security.JwtService;
 import com.appointment.service.UserService;
+import com.appointment.service.token.IssuedTokens;
+import com.appointment.service.token.RefreshTokenService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -21,56 +22,57 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
     
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
         User user = userService.registerUser(request);
         
-        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities("ROLE_" + user.getRole().name())
-                .build();
-        
-        String token = jwtService.generateToken(userDetails, user.getId(), user.getRole().name());
-        
-        AuthResponse authResponse = AuthResponse.builder()
-                .token(token)
-                .tokenType("Bearer")
-                .expiresIn(jwtService.getExpirationTime())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .role(user.getRole().name())
-                .build();
+        AuthResponse authResponse = authResponse(refreshTokenService.issue(user));
         
         return ResponseEntity.ok(ApiResponse.success("User registered successfully", authResponse));
     }
     
+    // For the sign-up form; registration still answers 409 if the email is taken by then
+    @GetMapping("/email-available")
+    public ResponseEntity<ApiResponse<Boolean>> isEmailAvailable(@RequestParam String email) {
+        return ResponseEntity.ok(ApiResponse.success(userService.isEmailAvailable(email)));
+    }
+    
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
+        authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
         
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         User user = userService.findByEmail(request.getEmail()).orElseThrow();
         
-        String token = jwtService.generateToken(userDetails, user.getId(), user.getRole().name());
-        
-        AuthResponse authResponse = AuthResponse.builder()
-                .token(token)
-                .tokenType("Bearer")
-                .expiresIn(jwtService.getExpirationTime())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .role(user.getRole().name())
-                .build();
+        AuthResponse authResponse = authResponse(refreshTokenService.issue(user));
         
         return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
     }
     
+    /**
+     * Exchanges a refresh token for a new access token and refresh token. The presented
+     * refresh token cannot be used again.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthResponse>> refresh(@Valid @RequestBody RefreshRequest request) {
+        AuthResponse authResponse = authResponse(refreshTokenService.rotate(request.getRefreshToken()));
+        
+        return ResponseEntity.ok(ApiResponse.success("Token refreshed", authResponse));
+    }
+    
+    /**
+     * Revokes the session's refresh tokens and the access tokens issued with them.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@Valid @RequestBody RefreshRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        
+        return ResponseEntity.ok(ApiResponse.success("Logged out", null));
+    }
+    
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse<AuthResponse>> getProfile(Authentication authentication) {
         User user = userService.findByEmail(authentication.getName()).orElseThrow();
@@ -84,4 +86,19 @@ public class AuthController {
         
         return ResponseEntity.ok(ApiResponse.success(authResponse));
     }
+    
+    private AuthResponse authResponse(IssuedTokens tokens) {
+        User user = tokens.user();
+        return AuthResponse.builder()
+                .token(tokens.accessToken())
+                .tokenType("Bearer")
+                .expiresIn(jwtService.getExpirationTime())
+                .refreshToken(tokens.refreshToken())
+                .refreshExpiresIn(refreshTokenService.getRefreshExpirationTime())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole().name())
+                .build();
+    }
 }
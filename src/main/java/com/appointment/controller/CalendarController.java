@@ -0,0 +1,73 @@
+package com.appointment.controller;
+
+import com.appointment.dto.ApiResponse;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.calendar.CalendarFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+public class CalendarController {
+    
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+    
+    private final CalendarFeedService calendarFeedService;
+    private final UserRepository userRepository;
+    
+    // The subscription URL for calendar apps; it carries its own secret, so keep it private
+    @GetMapping("/feed")
+    public ResponseEntity<ApiResponse<String>> getFeedUrl(Authentication authentication) {
+        return ResponseEntity.ok(ApiResponse.success(feedUrl(calendarFeedService.feedToken(currentUserId(authentication)))));
+    }
+    
+    @PostMapping("/feed/reset")
+    public ResponseEntity<ApiResponse<String>> resetFeedUrl(Authentication authentication) {
+        String url = feedUrl(calendarFeedService.resetToken(currentUserId(authentication)));
+        return ResponseEntity.ok(ApiResponse.success("Calendar link replaced", url));
+    }
+    
+    /**
+     * The feed itself, public and authorised by the token in its path. Answers 304 from memory
+     * when the client's ETag (or Last-Modified date) is still current.
+     */
+    @GetMapping("/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> getFeed(@PathVariable String token, WebRequest request) {
+        Long userId = calendarFeedService.resolve(token).orElse(null);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        CalendarFeedService.FeedVersion version = calendarFeedService.version(userId);
+        if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .eTag(version.etag())
+                .lastModified(version.lastModifiedMillis())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(out -> calendarFeedService.writeFeed(userId, out));
+    }
+    
+    private static String feedUrl(String token) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/calendar/{token}.ics")
+                .buildAndExpand(token)
+                .toUriString();
+    }
+    
+    private Long currentUserId(Authentication authentication) {
+        return userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"))
+                .getId();
+    }
+}
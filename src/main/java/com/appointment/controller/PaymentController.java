@@ -1,10 +1,14 @@
 package com.appointment.controller;
 
+import com.appointment.config.IdempotencyFilter;
 import com.appointment.dto.ApiResponse;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
@@ -13,8 +17,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -24,6 +31,8 @@ public class PaymentController {
     
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
     
+    private final MeterRegistry meterRegistry;
+    
     @Value("${stripe.publishable-key}")
     private String stripePublishableKey;
     
@@ -35,7 +44,12 @@ public class PaymentController {
     }
     
     @PostMapping("/create-payment-intent")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> createPaymentIntent(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> createPaymentIntent(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = IdempotencyFilter.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             Long amount = Long.valueOf(request.get("amount").toString());
             
@@ -44,7 +58,15 @@ public class PaymentController {
                     .setCurrency("usd")
                     .build();
             
-            PaymentIntent paymentIntent = PaymentIntent.create(params);
+            RequestOptions.RequestOptionsBuilder options = RequestOptions.builder();
+            if (idempotencyKey != null) {
+                // Stripe dedupes too, covering retries that land on another node
+                String scoped = principal.getName() + ":" + idempotencyKey;
+                options.setIdempotencyKey(UUID.nameUUIDFromBytes(scoped.getBytes(StandardCharsets.UTF_8)).toString());
+            }
+            
+            PaymentIntent paymentIntent = PaymentIntent.create(params, options.build());
+            outcome = "success";
             
             Map<String, Object> response = new HashMap<>();
             response.put("clientSecret", paymentIntent.getClientSecret());
@@ -55,15 +77,20 @@ public class PaymentController {
             logger.error("Stripe error: {}", e.getMessage());
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Failed to create payment intent: " + e.getMessage()));
+        } finally {
+            sample.stop(stripeTimer("create-payment-intent", outcome));
         }
     }
     
     @PostMapping("/confirm-payment")
     public ResponseEntity<ApiResponse<Map<String, Object>>> confirmPayment(@RequestBody Map<String, Object> request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             String paymentIntentId = (String) request.get("paymentIntentId");
             
             PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId, new java.util.HashMap<>(), null);
+            outcome = "success";
             
             Map<String, Object> response = new HashMap<>();
             response.put("transactionId", paymentIntent.getId());
@@ -76,9 +103,19 @@ public class PaymentController {
             logger.error("Stripe error: {}", e.getMessage());
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Payment confirmation failed: " + e.getMessage()));
+        } finally {
+            sample.stop(stripeTimer("retrieve-payment-intent", outcome));
         }
     }
     
+    private Timer stripeTimer(String operation, String outcome) {
+        return Timer.builder("stripe.requests")
+                .description("Latency of calls to the Stripe API")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
     private String mapPaymentStatusToMessage(String status) {
         return switch (status) {
             case "succeeded" -> "Payment processed successfully";
@@ -0,0 +1,25 @@
+package com.appointment.controller;
+
+import com.appointment.dto.ApiResponse;
+import com.appointment.dto.ResourceResponse;
+import com.appointment.service.ResourceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/resources")
+@RequiredArgsConstructor
+public class ResourceController {
+    
+    private final ResourceService resourceService;
+    
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ResourceResponse>>> getResources() {
+        return ResponseEntity.ok(ApiResponse.success(resourceService.getActiveResources()));
+    }
+}
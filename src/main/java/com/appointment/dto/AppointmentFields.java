@@ -0,0 +1,63 @@
+package com.appointment.dto;
+
+import com.appointment.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A sparse fieldset from a {@code fields=} request parameter, e.g. {@code fields=id,title,startTime}.
+ * Applied when the response is written, through the {@link #FILTER_ID} filter on
+ * {@link AppointmentResponse} and {@link AppointmentSummary}; other types are not filtered.
+ */
+public final class AppointmentFields {
+    
+    public static final String FILTER_ID = "appointmentFields";
+    
+    public static final Set<String> ALL = Set.of("id", "title", "description", "startTime", "endTime",
+            "status", "resourceId", "userName", "userEmail", "createdAt");
+    
+    // Properties of AppointmentSummary; selections within these skip the full entity query
+    public static final Set<String> SUMMARY = Set.of("id", "title", "startTime", "endTime",
+            "status", "resourceId", "userName", "userEmail");
+    
+    private static final AppointmentFields EVERYTHING = new AppointmentFields(ALL);
+    
+    private final Set<String> selected;
+    
+    private AppointmentFields(Set<String> selected) {
+        this.selected = selected;
+    }
+    
+    /**
+     * Parses a comma-separated list of property names. A missing or blank value selects every field.
+     */
+    public static AppointmentFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EVERYTHING;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALL.contains(name)) {
+                throw new BadRequestException("Unknown field: " + name + " (allowed: " + String.join(", ", ALL) + ")");
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? EVERYTHING : new AppointmentFields(selected);
+    }
+    
+    public boolean coveredBySummary() {
+        return SUMMARY.containsAll(selected);
+    }
+    
+    public FilterProvider filters() {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(selected));
+    }
+}
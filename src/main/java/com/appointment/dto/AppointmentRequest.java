@@ -25,4 +25,7 @@ public class AppointmentRequest {
     
     @NotNull(message = "End time is required")
     private LocalDateTime endTime;
+    
+    // Optional; the default resource is booked when omitted
+    private Long resourceId;
 }
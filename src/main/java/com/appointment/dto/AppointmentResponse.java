@@ -1,6 +1,8 @@
 package com.appointment.dto;
 
 import com.appointment.entity.Appointment;
+import com.appointment.entity.ArchivedAppointment;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +14,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(AppointmentFields.FILTER_ID)
 public class AppointmentResponse {
     
     private Long id;
@@ -20,6 +23,7 @@ public class AppointmentResponse {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String status;
+    private Long resourceId;
     private String userName;
     private String userEmail;
     private LocalDateTime createdAt;
@@ -32,6 +36,22 @@ public class AppointmentResponse {
                 .startTime(appointment.getStartTime())
                 .endTime(appointment.getEndTime())
                 .status(appointment.getStatus().name())
+                .resourceId(appointment.getResource() != null ? appointment.getResource().getId() : null)
+                .userName(appointment.getUser().getFullName())
+                .userEmail(appointment.getUser().getEmail())
+                .createdAt(appointment.getCreatedAt())
+                .build();
+    }
+    
+    public static AppointmentResponse fromArchived(ArchivedAppointment appointment) {
+        return AppointmentResponse.builder()
+                .id(appointment.getId())
+                .title(appointment.getTitle())
+                .description(appointment.getDescription())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .status(appointment.getStatus().name())
+                .resourceId(appointment.getResource() != null ? appointment.getResource().getId() : null)
                 .userName(appointment.getUser().getFullName())
                 .userEmail(appointment.getUser().getEmail())
                 .createdAt(appointment.getCreatedAt())
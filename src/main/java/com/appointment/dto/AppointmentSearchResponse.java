@@ -0,0 +1,19 @@
+package com.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSearchResponse {
+    
+    // Number of matches; appointments holds at most the requested limit, earliest first
+    private long total;
+    private List<AppointmentResponse> appointments;
+}
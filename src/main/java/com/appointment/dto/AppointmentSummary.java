@@ -0,0 +1,39 @@
+package com.appointment.dto;
+
+import com.appointment.entity.Appointment;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns calendar and list views render. Selected directly into this class by the
+ * constructor expressions in {@code AppointmentRepository}, so the description TEXT column
+ * and the audit timestamps are never read.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(AppointmentFields.FILTER_ID)
+public class AppointmentSummary {
+    
+    private Long id;
+    private String title;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String status;
+    private Long resourceId;
+    private String userName;
+    private String userEmail;
+    
+    // Used by the JPQL constructor expressions
+    public AppointmentSummary(Long id, String title, LocalDateTime startTime, LocalDateTime endTime,
+                              Appointment.AppointmentStatus status, Long resourceId,
+                              String firstName, String lastName, String userEmail) {
+        this(id, title, startTime, endTime, status.name(), resourceId, firstName + " " + lastName, userEmail);
+    }
+}
@@ -14,6 +14,8 @@ public class AuthResponse {
     private String token;
     private String tokenType;
     private Long expiresIn;
+    private String refreshToken;
+    private Long refreshExpiresIn;
     private String email;
     private String firstName;
     private String lastName;
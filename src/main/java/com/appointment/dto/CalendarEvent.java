@@ -0,0 +1,25 @@
+package com.appointment.dto;
+
+import com.appointment.entity.Appointment;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One appointment as written to a calendar feed. Selected directly by a constructor
+ * expression in {@code AppointmentRepository}, so no entities are loaded while a feed streams.
+ */
+@Value
+@AllArgsConstructor
+public class CalendarEvent {
+    
+    Long id;
+    String title;
+    String description;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    Appointment.AppointmentStatus status;
+    String resourceName;
+    LocalDateTime updatedAt;
+}
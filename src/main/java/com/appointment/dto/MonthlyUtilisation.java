@@ -0,0 +1,32 @@
+package com.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+/**
+ * One month of appointment analytics, by the month the appointments start in. Lead times are
+ * the time between booking and start, counted per booking including those cancelled since.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyUtilisation {
+    
+    private YearMonth month;
+    private long bookings;
+    private long cancellations;
+    private Double cancellationRate;
+    private long bookedMinutes;
+    private long openMinutes;
+    private Double utilisation;
+    private Double averageLeadTimeHours;
+    private long leadWithinDay;
+    private long leadWithinWeek;
+    private long leadWithinMonth;
+    private long leadLonger;
+}
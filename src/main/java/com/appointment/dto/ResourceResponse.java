@@ -0,0 +1,28 @@
+package com.appointment.dto;
+
+import com.appointment.entity.Resource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceResponse {
+    
+    private Long id;
+    private String name;
+    private String type;
+    private boolean active;
+    
+    public static ResourceResponse fromEntity(Resource resource) {
+        return ResourceResponse.builder()
+                .id(resource.getId())
+                .name(resource.getName())
+                .type(resource.getType().name())
+                .active(resource.isActive())
+                .build();
+    }
+}
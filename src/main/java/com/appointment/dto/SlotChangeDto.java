@@ -0,0 +1,22 @@
+package com.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One slot stream event: the current state of the slots on {@code date} that a change touched.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotChangeDto {
+    private LocalDate date;
+    private Long resourceId;
+    private List<TimeSlotDto> slots;
+}
@@ -0,0 +1,38 @@
+package com.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+    
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    
+    public enum RowStatus {
+        CREATED,
+        // Already registered, or repeated earlier in the same file
+        DUPLICATE,
+        INVALID
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        // 1-based line in the uploaded file
+        private long line;
+        private String email;
+        private RowStatus status;
+        private String message;
+    }
+}
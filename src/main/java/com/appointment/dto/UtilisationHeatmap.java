@@ -0,0 +1,41 @@
+package com.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bookings and utilisation by weekday and hour over a date range, one cell per weekday and
+ * hour. Utilisation is booked minutes over the minutes the business was open, and is null
+ * for hours it never opens.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilisationHeatmap {
+    
+    private LocalDate from;
+    private LocalDate to;
+    private Long resourceId;
+    private List<Cell> cells;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cell {
+        private DayOfWeek dayOfWeek;
+        private int hour;
+        private long bookings;
+        private long cancellations;
+        private long bookedMinutes;
+        private long openMinutes;
+        private Double utilisation;
+    }
+}
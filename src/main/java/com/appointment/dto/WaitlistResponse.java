@@ -0,0 +1,40 @@
+package com.appointment.dto;
+
+import com.appointment.entity.WaitlistEntry;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistResponse {
+    
+    private Long id;
+    private Long resourceId;
+    private String title;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private int priority;
+    private String status;
+    private LocalDateTime joinedAt;
+    private Long appointmentId;
+    
+    public static WaitlistResponse fromEntity(WaitlistEntry entry) {
+        return WaitlistResponse.builder()
+                .id(entry.getId())
+                .resourceId(entry.getResource().getId())
+                .title(entry.getTitle())
+                .startTime(entry.getStartTime())
+                .endTime(entry.getEndTime())
+                .priority(entry.getPriority())
+                .status(entry.getStatus().name())
+                .joinedAt(entry.getJoinedAt())
+                .appointmentId(entry.getAppointmentId())
+                .build();
+    }
+}
@@ -9,7 +9,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_resource_start", columnList = "resource_id, start_time"),
+        @Index(name = "idx_appointments_status_end", columnList = "status, end_time, id"),
+        @Index(name = "idx_appointments_updated", columnList = "updated_at, id"),
+        @Index(name = "idx_appointments_user_start", columnList = "user_id, start_time")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -24,6 +29,11 @@ public class Appointment {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
+    // Nullable only for rows created before resources existed; DataInitializer backfills them
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "resource_id")
+    private Resource resource;
+    
     @Column(nullable = false, length = 255)
     private String title;
     
@@ -40,6 +50,10 @@ public class Appointment {
     @Column(nullable = false, length = 20)
     private AppointmentStatus status;
     
+    // The start time the last reminder was sent for; after a move it no longer matches
+    @Column(name = "reminded_start_time")
+    private LocalDateTime remindedStartTime;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -0,0 +1,68 @@
+package com.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals for the appointments that start in one hour on one resource. Kept up to date
+ * by {@code UtilisationRollupWriter} in the transaction of every appointment change, so
+ * analytics read these rows and never the appointments. Rows outlive archiving on purpose.
+ * <p>
+ * Booked minutes are spread over every hour an appointment covers; everything else is counted
+ * in the hour it starts.
+ */
+@Entity
+@Table(name = "appointment_hourly_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_hourly_stats_resource_hour", columnNames = {"resource_id", "hour_start"}),
+        indexes = @Index(name = "idx_hourly_stats_hour", columnList = "hour_start"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentHourlyStats {
+    
+    // Appointments booked before resources existed have no resource
+    public static final long NO_RESOURCE = 0;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "resource_id", nullable = false)
+    private long resourceId;
+    
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+    
+    // Every appointment made for this hour, including those cancelled since
+    @Column(nullable = false)
+    private long bookings;
+    
+    @Column(nullable = false)
+    private long cancellations;
+    
+    // Minutes of this hour covered by appointments that are not cancelled
+    @Column(name = "booked_minutes", nullable = false)
+    private long bookedMinutes;
+    
+    // Sum of the minutes between booking and start, over all bookings
+    @Column(name = "lead_time_minutes", nullable = false)
+    private long leadTimeMinutes;
+    
+    @Column(name = "lead_within_day", nullable = false)
+    private long leadWithinDay;
+    
+    @Column(name = "lead_within_week", nullable = false)
+    private long leadWithinWeek;
+    
+    @Column(name = "lead_within_month", nullable = false)
+    private long leadWithinMonth;
+    
+    @Column(name = "lead_longer", nullable = false)
+    private long leadLonger;
+}
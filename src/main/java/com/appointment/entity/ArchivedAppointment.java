@@ -0,0 +1,61 @@
+package com.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An appointment that ended before the archive horizon, moved out of {@code appointments}
+ * by {@code AppointmentArchiveService}. Rows keep their original id and are never updated.
+ */
+@Entity
+@Table(name = "appointments_history", indexes = {
+        @Index(name = "idx_appointments_history_start", columnList = "start_time"),
+        @Index(name = "idx_appointments_history_user", columnList = "user_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedAppointment {
+    
+    @Id
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "resource_id")
+    private Resource resource;
+    
+    @Column(nullable = false, length = 255)
+    private String title;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+    
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Appointment.AppointmentStatus status;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,61 @@
+package com.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A refresh token handed out with an access token. Only its SHA-256 hash is stored.
+ * <p>
+ * Each refresh is single-use: it is marked used and a new token in the same family replaces
+ * it. Presenting a used token again means it was copied, so the whole family is revoked,
+ * together with the access tokens issued alongside it ({@code accessJti}).
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id, revoked_at"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+    
+    // Shared by every token descended from one login
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+    
+    // The access token issued together with this refresh token
+    @Column(name = "access_jti", nullable = false, length = 36)
+    private String accessJti;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+    
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -5,11 +5,23 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
+/**
+ * Users are read on every authenticated request and almost never change, so they are held
+ * in the second-level cache by id ({@code users}) and by email ({@code users-by-email}).
+ * See ehcache.xml for sizes, TTLs and eviction semantics.
+ */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,6 +32,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @NaturalId
     @Column(nullable = false, unique = true, length = 255)
     private String email;
     
@@ -36,6 +49,10 @@ public class User {
     @Column(nullable = false, length = 20)
     private UserRole role;
     
+    // Secret part of the user's calendar feed URL; null until the user asks for the feed
+    @Column(name = "calendar_token", length = 64)
+    private String calendarToken;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
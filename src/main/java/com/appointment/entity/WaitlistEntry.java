@@ -0,0 +1,85 @@
+package com.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user waiting for a taken time range on a resource. When the appointment holding the range
+ * is cancelled, the head of the queue (highest priority, then earliest join) is booked into it.
+ * <p>
+ * The queue order is the {@code idx_waitlist_queue} index, so the head is one index seek no
+ * matter how many users are waiting, and every node sees the same queue.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_queue",
+                columnList = "resource_id, start_time, end_time, status, priority DESC, joined_at, id"),
+        @Index(name = "idx_waitlist_user", columnList = "user_id, status")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "resource_id", nullable = false)
+    private Resource resource;
+    
+    @Column(nullable = false, length = 255)
+    private String title;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+    
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+    
+    // Higher goes first; users join at 0 and admins can move them up
+    @Column(nullable = false)
+    private int priority;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WaitlistStatus status;
+    
+    @Column(name = "joined_at", nullable = false)
+    private LocalDateTime joinedAt;
+    
+    // Set on promotion: the appointment the user was booked into
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+    
+    @Column(name = "promoted_at")
+    private LocalDateTime promotedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        joinedAt = LocalDateTime.now();
+        if (status == null) {
+            status = WaitlistStatus.WAITING;
+        }
+    }
+    
+    public enum WaitlistStatus {
+        WAITING,
+        PROMOTED,
+        LEFT
+    }
+}
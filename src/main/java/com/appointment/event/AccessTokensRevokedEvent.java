@@ -0,0 +1,17 @@
+package com.appointment.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Published inside the transaction that revoked access tokens, keyed by token id with the
+ * time each token expires. The revoking node applies it after commit; other nodes pick the
+ * rows up from {@code revoked_tokens}.
+ */
+@Value
+public class AccessTokensRevokedEvent {
+    
+    Map<String, LocalDateTime> expiresAtByJti;
+}
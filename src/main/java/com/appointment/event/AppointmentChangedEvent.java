@@ -0,0 +1,63 @@
+package com.appointment.event;
+
+import com.appointment.entity.Appointment;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@code AppointmentService} inside the transaction that changed an appointment.
+ * Listeners that act on committed state should use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class AppointmentChangedEvent {
+    
+    ChangeType type;
+    Long appointmentId;
+    Long userId;
+    String userEmail;
+    String userName;
+    Long resourceId;
+    String title;
+    String description;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    Appointment.AppointmentStatus status;
+    LocalDateTime createdAt;
+    LocalDateTime occurredAt;
+    
+    // Set on UPDATED only: where the appointment was before the change
+    Long previousResourceId;
+    LocalDateTime previousStartTime;
+    LocalDateTime previousEndTime;
+    // Set on UPDATED and CANCELLED: the status before the change
+    Appointment.AppointmentStatus previousStatus;
+    
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        CANCELLED,
+        DELETED
+    }
+    
+    public static AppointmentChangedEvent of(ChangeType type, Appointment appointment) {
+        return AppointmentChangedEvent.builder()
+                .type(type)
+                .appointmentId(appointment.getId())
+                .userId(appointment.getUser().getId())
+                .userEmail(appointment.getUser().getEmail())
+                .userName(appointment.getUser().getFullName())
+                .resourceId(appointment.getResource() != null ? appointment.getResource().getId() : null)
+                .title(appointment.getTitle())
+                .description(appointment.getDescription())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .status(appointment.getStatus())
+                .createdAt(appointment.getCreatedAt())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
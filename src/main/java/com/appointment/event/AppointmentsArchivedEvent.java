@@ -0,0 +1,15 @@
+package com.appointment.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published inside each archive batch transaction with the ids moved to
+ * {@code appointments_history}, so in-memory views on this node can drop them after commit.
+ */
+@Value
+public class AppointmentsArchivedEvent {
+    
+    List<Long> appointmentIds;
+}
@@ -0,0 +1,13 @@
+package com.appointment.exception;
+
+/**
+ * A request parameter the client got wrong, e.g. an unknown field name. Answered with
+ * 400 Bad Request by {@code GlobalExceptionHandler} and logged at debug only, since it
+ * says nothing about the health of the server.
+ */
+public class BadRequestException extends RuntimeException {
+    
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.appointment.exception;
+
+/**
+ * The request is valid but clashes with the current state, e.g. a booking over a taken slot.
+ * Answered with 409 Conflict by {@code GlobalExceptionHandler}, with {@link #getDetails()} as
+ * the response data when present.
+ */
+public class ConflictException extends RuntimeException {
+    
+    private final transient Object details;
+    
+    public ConflictException(String message) {
+        this(message, null);
+    }
+    
+    public ConflictException(String message, Object details) {
+        super(message);
+        this.details = details;
+    }
+    
+    public Object getDetails() {
+        return details;
+    }
+}
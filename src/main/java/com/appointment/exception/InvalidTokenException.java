@@ -0,0 +1,12 @@
+package com.appointment.exception;
+
+/**
+ * A refresh token that is unknown, expired, revoked or already used. Answered with
+ * 401 Unauthorized by {@code GlobalExceptionHandler}; the client has to sign in again.
+ */
+public class InvalidTokenException extends RuntimeException {
+    
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
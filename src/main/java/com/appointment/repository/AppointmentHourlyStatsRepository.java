@@ -0,0 +1,34 @@
+package com.appointment.repository;
+
+import com.appointment.entity.AppointmentHourlyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentHourlyStatsRepository extends JpaRepository<AppointmentHourlyStats, Long>,
+        AppointmentHourlyStatsRepositoryCustom {
+    
+    // Totals over all resources per hour: at most 8784 rows for a year, whatever the bookings
+    @Query("SELECT s.hourStart, SUM(s.bookings), SUM(s.cancellations), SUM(s.bookedMinutes), SUM(s.leadTimeMinutes), "
+            + "SUM(s.leadWithinDay), SUM(s.leadWithinWeek), SUM(s.leadWithinMonth), SUM(s.leadLonger) "
+            + "FROM AppointmentHourlyStats s WHERE s.hourStart >= :from AND s.hourStart < :to "
+            + "GROUP BY s.hourStart")
+    List<Object[]> sumByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT s.hourStart, s.bookings, s.cancellations, s.bookedMinutes, s.leadTimeMinutes, "
+            + "s.leadWithinDay, s.leadWithinWeek, s.leadWithinMonth, s.leadLonger "
+            + "FROM AppointmentHourlyStats s WHERE s.resourceId = :resourceId AND s.hourStart >= :from AND s.hourStart < :to")
+    List<Object[]> findByResourceAndHour(@Param("resourceId") long resourceId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query("DELETE FROM AppointmentHourlyStats s")
+    int deleteAllInBulk();
+}
@@ -0,0 +1,20 @@
+package com.appointment.repository;
+
+import com.appointment.entity.AppointmentHourlyStats;
+
+import java.util.Collection;
+
+public interface AppointmentHourlyStatsRepositoryCustom {
+    
+    /**
+     * Adds each delta's counts to the row for its resource and hour, creating the row when it
+     * does not exist yet. Deltas may be negative. Safe against concurrent writers of the same row.
+     */
+    void addAll(Collection<AppointmentHourlyStats> deltas);
+    
+    /**
+     * Waits for transactions that have written rollups to finish, then holds off any further
+     * writer until the current transaction ends.
+     */
+    void lockAgainstWriters();
+}
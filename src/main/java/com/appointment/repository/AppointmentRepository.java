@@ -1,33 +1,170 @@
 package com.appointment.repository;
 
+import com.appointment.dto.AppointmentSummary;
+import com.appointment.dto.CalendarEvent;
 import com.appointment.entity.Appointment;
+import com.appointment.entity.Resource;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentRepositoryCustom {
     
     List<Appointment> findByUserId(Long userId);
     
     List<Appointment> findByUserIdAndStatus(Long userId, Appointment.AppointmentStatus status);
     
-    @Query("SELECT a FROM Appointment a WHERE a.startTime >= :startTime AND a.endTime <= :endTime ORDER BY a.startTime ASC")
-    List<Appointment> findAppointmentsBetweenDates(
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.user ORDER BY a.startTime ASC")
+    List<Appointment> findAllWithUser();
+    
+    // Summary projections: only the listed columns are selected, no entities are loaded
+    @Query("SELECT new com.appointment.dto.AppointmentSummary(a.id, a.title, a.startTime, a.endTime, a.status, "
+            + "r.id, u.firstName, u.lastName, u.email) FROM Appointment a JOIN a.user u LEFT JOIN a.resource r "
+            + "WHERE u.id = :userId ORDER BY a.id ASC")
+    List<AppointmentSummary> findSummariesByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT new com.appointment.dto.AppointmentSummary(a.id, a.title, a.startTime, a.endTime, a.status, "
+            + "r.id, u.firstName, u.lastName, u.email) FROM Appointment a JOIN a.user u LEFT JOIN a.resource r "
+            + "ORDER BY a.startTime ASC")
+    List<AppointmentSummary> findAllSummaries();
+    
+    // Streamed into a user's calendar feed; must be consumed inside the transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.appointment.dto.CalendarEvent(a.id, a.title, a.description, a.startTime, a.endTime, "
+            + "a.status, r.name, a.updatedAt) FROM Appointment a LEFT JOIN a.resource r "
+            + "WHERE a.user.id = :userId ORDER BY a.startTime ASC, a.id ASC")
+    Stream<CalendarEvent> streamCalendarEvents(@Param("userId") Long userId);
+    
+    // Count, latest change and highest id: moves whenever a user's feed would change
+    @Query("SELECT COUNT(a), MAX(a.updatedAt), MAX(a.id) FROM Appointment a WHERE a.user.id = :userId")
+    List<Object[]> findFeedVersion(@Param("userId") Long userId);
+    
+    @Query("SELECT DISTINCT a.user.id FROM Appointment a WHERE a.updatedAt > :since")
+    List<Long> findUserIdsUpdatedAfter(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.user WHERE a.id IN :ids")
+    List<Appointment> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Keyset pages for loading the search index
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.user WHERE a.id > :afterId ORDER BY a.id ASC")
+    List<Appointment> findPageWithUserAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // id, resource id, start, end, status, created at: what the utilisation rollups are built from
+    @Query("SELECT a.id, r.id, a.startTime, a.endTime, a.status, a.createdAt FROM Appointment a "
+            + "LEFT JOIN a.resource r WHERE a.id > :afterId ORDER BY a.id ASC")
+    List<Object[]> findRollupPageAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.user WHERE a.updatedAt > :since "
+            + "OR (a.updatedAt = :since AND a.id > :afterId) ORDER BY a.updatedAt ASC, a.id ASC")
+    List<Appointment> findPageWithUserUpdatedAfter(
+            @Param("since") LocalDateTime since,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+    
+    // Bookings go through insertIfSlotFree, see AppointmentRepositoryCustom
+    
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.resource.id = :resourceId AND a.startTime < :endTime "
+            + "AND a.endTime > :startTime AND a.status <> 'CANCELLED'")
+    boolean existsActiveOverlap(
+            @Param("resourceId") Long resourceId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
     
+    // [id, start_time, end_time] of the resource's active appointments, for the free-gap index
+    @Query("SELECT a.id, a.startTime, a.endTime FROM Appointment a WHERE a.resource.id = :resourceId "
+            + "AND a.endTime > :after AND a.status <> 'CANCELLED'")
+    List<Object[]> findActiveRangesEndingAfter(
+            @Param("resourceId") Long resourceId,
+            @Param("after") LocalDateTime after
+    );
+    
     @Query("SELECT a FROM Appointment a WHERE a.startTime >= :date AND a.startTime < :datePlusOne ORDER BY a.startTime ASC")
     List<Appointment> findByDate(@Param("date") LocalDateTime date, @Param("datePlusOne") LocalDateTime datePlusOne);
     
+    /**
+     * The resource's non-cancelled appointments overlapping {@code [from, to)}, by start time.
+     * {@code startsAfter} bounds the index range scan from below.
+     */
+    @Query("SELECT a FROM Appointment a WHERE a.resource.id = :resourceId AND a.startTime >= :startsAfter "
+            + "AND a.startTime < :to AND a.endTime > :from AND a.status <> 'CANCELLED' ORDER BY a.startTime ASC")
+    List<Appointment> findActiveOverlapping(
+            @Param("resourceId") Long resourceId,
+            @Param("startsAfter") LocalDateTime startsAfter,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.resource = :resource WHERE a.resource IS NULL")
+    int assignResourceWhereMissing(@Param("resource") Resource resource);
+    
+    /**
+     * Locks and returns the ids of up to {@code limit} appointments that ended before the cutoff.
+     * Rows already locked by another node's archive run are skipped rather than waited for.
+     */
+    @Query(value = "SELECT id FROM appointments WHERE end_time < :cutoff ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockIdsEndedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    @Query("SELECT a.id FROM Appointment a WHERE a.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM Appointment a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+    
+    /**
+     * Locks the next chunk of scheduled appointments that ended before {@code now}, in
+     * (end_time, id) order after the given watermark. Returns {@code [end_time, id]} pairs.
+     */
+    @Query(value = "SELECT end_time, id FROM appointments WHERE status = 'SCHEDULED' AND end_time < :now "
+            + "AND (end_time, id) > (:afterEndTime, :afterId) ORDER BY end_time, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Object[]> lockEndedScheduledAfter(
+            @Param("now") LocalDateTime now,
+            @Param("afterEndTime") LocalDateTime afterEndTime,
+            @Param("afterId") long afterId,
+            @Param("limit") int limit
+    );
+    
+    // Re-checks the status so rows cancelled since they were selected are left alone
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = 'COMPLETED', a.updatedAt = :now WHERE a.id IN :ids AND a.status = 'SCHEDULED'")
+    int markCompleted(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.status = :status")
     long countByStatus(@Param("status") Appointment.AppointmentStatus status);
     
-    @Query("SELECT a FROM Appointment a WHERE a.startTime >= :now AND a.status = 'SCHEDULED' ORDER BY a.startTime ASC")
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.user WHERE a.startTime >= :now AND a.status = 'SCHEDULED' ORDER BY a.startTime ASC")
     List<Appointment> findUpcomingAppointments(@Param("now") LocalDateTime now);
+    
+    /**
+     * Claims the reminder for this start time: returns 0 when the appointment has since been
+     * cancelled, moved or deleted, or the reminder already went out. A bulk update, so
+     * {@code updated_at} stays put and refresh passes elsewhere do not see a change.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.remindedStartTime = :startTime WHERE a.id = :id AND a.startTime = :startTime "
+            + "AND a.status = 'SCHEDULED' AND (a.remindedStartTime IS NULL OR a.remindedStartTime <> :startTime)")
+    int claimReminder(@Param("id") Long id, @Param("startTime") LocalDateTime startTime);
 }
@@ -0,0 +1,18 @@
+package com.appointment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface AppointmentRepositoryCustom {
+    
+    /**
+     * Inserts a SCHEDULED appointment in a single statement, unless a non-cancelled appointment
+     * on the same resource overlaps {@code [startTime, endTime)}. Returns the new id, or empty
+     * when nothing was inserted because the slot is taken.
+     * <p>
+     * The check and the insert are one statement but not isolated from concurrent bookings on
+     * their own; callers hold the resource lock (see {@code ResourceService.lockForBooking}).
+     */
+    Optional<Long> insertIfSlotFree(Long userId, Long resourceId, String title, String description,
+                                    LocalDateTime startTime, LocalDateTime endTime, LocalDateTime now);
+}
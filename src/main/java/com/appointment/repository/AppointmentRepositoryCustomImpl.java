@@ -0,0 +1,54 @@
+package com.appointment.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+    
+    // Two appointments overlap when each starts before the other ends; touching ends are allowed
+    private static final String INSERT_IF_SLOT_FREE = """
+            INSERT INTO appointments (user_id, resource_id, title, description, start_time, end_time, status, created_at, updated_at)
+            SELECT ?, ?, ?, ?, ?, ?, 'SCHEDULED', ?, ?
+            WHERE NOT EXISTS (
+                SELECT 1 FROM appointments a
+                WHERE a.resource_id = ? AND a.start_time < ? AND a.end_time > ? AND a.status <> 'CANCELLED'
+            )
+            """;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Long> insertIfSlotFree(Long userId, Long resourceId, String title, String description,
+                                           LocalDateTime startTime, LocalDateTime endTime, LocalDateTime now) {
+        // Plain JDBC on the transaction's connection: JPA native queries can't return generated keys
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_IF_SLOT_FREE, new String[]{"id"})) {
+                statement.setLong(1, userId);
+                statement.setLong(2, resourceId);
+                statement.setString(3, title);
+                statement.setString(4, description);
+                statement.setObject(5, startTime);
+                statement.setObject(6, endTime);
+                statement.setObject(7, now);
+                statement.setObject(8, now);
+                statement.setLong(9, resourceId);
+                statement.setObject(10, endTime);
+                statement.setObject(11, startTime);
+                if (statement.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    keys.next();
+                    return Optional.of(keys.getLong(1));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.appointment.repository;
+
+import com.appointment.entity.ArchivedAppointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+    
+    @Query("SELECT a FROM ArchivedAppointment a JOIN FETCH a.user WHERE a.startTime >= :from AND a.startTime < :to ORDER BY a.startTime ASC")
+    List<ArchivedAppointment> findHistoryBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT a FROM ArchivedAppointment a JOIN FETCH a.user WHERE a.user.id = :userId ORDER BY a.startTime DESC")
+    List<ArchivedAppointment> findHistoryByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT a.id, r.id, a.startTime, a.endTime, a.status, a.createdAt FROM ArchivedAppointment a "
+            + "LEFT JOIN a.resource r WHERE a.id > :afterId ORDER BY a.id ASC")
+    List<Object[]> findRollupPageAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Copies the given hot rows as they are; callers delete them from appointments in the same transaction
+    @Modifying
+    @Query(value = "INSERT INTO appointments_history "
+            + "(id, user_id, resource_id, title, description, start_time, end_time, status, created_at, updated_at, archived_at) "
+            + "SELECT id, user_id, resource_id, title, description, start_time, end_time, status, created_at, updated_at, :archivedAt "
+            + "FROM appointments WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromAppointments(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,47 @@
+package com.appointment.repository;
+
+import com.appointment.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Locks the oldest unpublished events. A relay on another node waits here rather than
+     * skipping ahead, which keeps delivery in id order.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<OutboxEvent> lockNextPending(@Param("limit") int limit);
+    
+    /**
+     * Highest id already relayed. Read after {@link #lockNextPending} so that it reflects any
+     * batch another node published while this one waited for the lock.
+     */
+    @Query("SELECT MAX(e.id) FROM OutboxEvent e WHERE e.publishedAt IS NOT NULL")
+    Long findLastPublishedId();
+    
+    long countByPublishedAtIsNull();
+    
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.publishedAt IS NULL")
+    LocalDateTime findOldestPendingCreatedAt();
+    
+    /**
+     * Deletes up to {@code limit} events published before the cutoff, oldest first, in a
+     * transaction of its own so that a large purge never holds one long delete.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_events WHERE id IN "
+            + "(SELECT id FROM outbox_events WHERE published_at < :before ORDER BY id LIMIT :limit)",
+            nativeQuery = true)
+    int deletePublishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -0,0 +1,33 @@
+package com.appointment.repository;
+
+import com.appointment.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    // Locked, so two refreshes racing with the same token are serialised and the second sees it used
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> lockByTokenHash(@Param("tokenHash") String tokenHash);
+    
+    @Query("SELECT t FROM RefreshToken t WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    List<RefreshToken> findActiveByFamilyId(@Param("familyId") String familyId);
+    
+    @Query("SELECT t FROM RefreshToken t WHERE t.user.id = :userId AND t.revokedAt IS NULL AND t.expiresAt > :now")
+    List<RefreshToken> findActiveByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,30 @@
+package com.appointment.repository;
+
+import com.appointment.entity.Resource;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ResourceRepository extends JpaRepository<Resource, Long> {
+    
+    List<Resource> findByActiveTrueOrderByNameAsc();
+    
+    Optional<Resource> findFirstByActiveTrueOrderByIdAsc();
+    
+    boolean existsByName(String name);
+    
+    /**
+     * Locks the resource row so bookings on the same resource are serialised while
+     * bookings on other resources proceed in parallel.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Resource r WHERE r.id = :id")
+    Optional<Resource> findByIdForUpdate(@Param("id") Long id);
+}
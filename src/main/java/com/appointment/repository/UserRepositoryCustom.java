@@ -0,0 +1,23 @@
+package com.appointment.repository;
+
+import com.appointment.entity.User;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    
+    /**
+     * Loads a user through the {@code email} natural id, so repeated lookups are served
+     * from the second-level cache instead of the database.
+     */
+    Optional<User> findByEmail(String email);
+    
+    /**
+     * Inserts the users as one JDBC batch, skipping any whose email is already taken (including
+     * by a concurrent insert). Returns, per user, whether it was inserted. Bypasses the
+     * persistence context and does not assign ids to the given objects; the caller must evict
+     * cached user queries once the transaction commits.
+     */
+    boolean[] insertAllSkippingTakenEmails(List<User> users);
+}
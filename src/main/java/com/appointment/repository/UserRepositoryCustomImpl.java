@@ -0,0 +1,63 @@
+package com.appointment.repository;
+
+import com.appointment.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    
+    // Without a conflict target, so PostgreSQL and H2's PostgreSQL mode accept the same statement
+    private static final String INSERT_SKIPPING_TAKEN_EMAILS =
+            "INSERT INTO users (email, password, first_name, last_name, role, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+    
+    @Override
+    @Transactional
+    public boolean[] insertAllSkippingTakenEmails(List<User> users) {
+        boolean[] inserted = new boolean[users.size()];
+        if (users.isEmpty()) {
+            return inserted;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SKIPPING_TAKEN_EMAILS)) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                for (User user : users) {
+                    insert.setString(1, user.getEmail());
+                    insert.setString(2, user.getPassword());
+                    insert.setString(3, user.getFirstName());
+                    insert.setString(4, user.getLastName());
+                    insert.setString(5, user.getRole().name());
+                    insert.setTimestamp(6, now);
+                    insert.setTimestamp(7, now);
+                    insert.addBatch();
+                }
+                int[] counts = insert.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    // Some drivers report success without a row count
+                    inserted[i] = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+                }
+            }
+        });
+        return inserted;
+    }
+}
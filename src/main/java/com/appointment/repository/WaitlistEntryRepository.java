@@ -0,0 +1,49 @@
+package com.appointment.repository;
+
+import com.appointment.entity.WaitlistEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    /**
+     * Locks the first waiting entry for the range, in queue order. Reads the head of
+     * {@code idx_waitlist_queue} rather than sorting the waiters.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM WaitlistEntry e WHERE e.resource.id = :resourceId AND e.startTime = :startTime "
+            + "AND e.endTime = :endTime AND e.status = 'WAITING' ORDER BY e.priority DESC, e.joinedAt ASC, e.id ASC")
+    List<WaitlistEntry> lockHead(
+            @Param("resourceId") Long resourceId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            Pageable pageable
+    );
+    
+    @Query("SELECT COUNT(e) > 0 FROM WaitlistEntry e WHERE e.user.id = :userId AND e.resource.id = :resourceId "
+            + "AND e.startTime = :startTime AND e.endTime = :endTime AND e.status = 'WAITING'")
+    boolean isWaiting(
+            @Param("userId") Long userId,
+            @Param("resourceId") Long resourceId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+    
+    @Query("SELECT e FROM WaitlistEntry e WHERE e.user.id = :userId ORDER BY e.startTime ASC, e.id ASC")
+    List<WaitlistEntry> findByUserId(@Param("userId") Long userId);
+    
+    // Conditional, so leaving waits for a promotion holding the row and then reports it lost the race
+    @Modifying
+    @Query("UPDATE WaitlistEntry e SET e.status = 'LEFT' WHERE e.id = :id AND e.user.id = :userId AND e.status = 'WAITING'")
+    int leave(@Param("id") Long id, @Param("userId") Long userId);
+}
@@ -1,29 +1,53 @@
 package com.appointment.security;
 
+import com.appointment.service.token.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Authenticates requests carrying a bearer access token from the token alone: the signature,
+ * expiry and in-memory revocation set decide, and the principal is built from the token's
+ * claims. No request loads the user; role changes and blocks take effect through revocation
+ * or, at the latest, when the short-lived token expires and is refreshed.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService revocationService;
+    private final Map<String, Counter> outcomes = new ConcurrentHashMap<>();
+    private final Map<String, List<GrantedAuthority>> authoritiesByRole = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   TokenRevocationService revocationService,
+                                   MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.revocationService = revocationService;
+        this.meterRegistry = meterRegistry;
+    }
     
     @Override
     protected void doFilterInternal(
@@ -41,20 +65,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7);
         
         // Basic validation: JWT must have exactly 2 periods (3 parts: header.payload.signature)
-        if (jwt == null || jwt.split("\\.").length != 3) {
-            log.warn("Invalid JWT token format: expected 3 parts, got {}", jwt.split("\\.").length);
+        int periods = countPeriods(jwt);
+        if (periods != 2) {
+            log.warn("Invalid JWT token format: expected 3 parts, got {}", periods + 1);
+            recordOutcome("malformed");
             SecurityContextHolder.clearContext();
             filterChain.doFilter(request, response);
             return;
         }
         
         try {
-            final String username = jwtService.extractUsername(jwt);
-            
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                Claims claims = jwtService.parseAccessToken(jwt);
+                String jti = claims.getId();
                 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                // Tokens without an id predate revocation and cannot be revoked, so they are refused
+                if (jti == null || claims.getSubject() == null) {
+                    recordOutcome("invalid");
+                } else if (revocationService.isRevoked(jti)) {
+                    recordOutcome("revoked");
+                } else {
+                    UserDetails userDetails = new User(claims.getSubject(), "",
+                            authoritiesFor(claims.get("role", String.class)));
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -62,13 +94,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    recordOutcome("valid");
                 }
             }
         } catch (Exception e) {
             log.warn("JWT authentication failed: {}", e.getMessage());
+            recordOutcome("error");
             SecurityContextHolder.clearContext();
         }
         
         filterChain.doFilter(request, response);
     }
+    
+    private List<GrantedAuthority> authoritiesFor(String role) {
+        return role == null
+                ? List.of()
+                : authoritiesByRole.computeIfAbsent(role, name -> List.of(new SimpleGrantedAuthority("ROLE_" + name)));
+    }
+    
+    private static int countPeriods(String jwt) {
+        int periods = 0;
+        for (int i = 0; i < jwt.length(); i++) {
+            if (jwt.charAt(i) == '.') {
+                periods++;
+            }
+        }
+        return periods;
+    }
+    
+    private void recordOutcome(String outcome) {
+        outcomes.computeIfAbsent(outcome, name -> meterRegistry.counter("jwt.validation", "outcome", name)).increment();
+    }
 }
@@ -1,6 +1,7 @@
 package com.appointment.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,8 +11,6 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Function;
 
 @Service
@@ -20,8 +19,14 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Derived once; both are immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    
+    public JwtService(@Value("${jwt.secret}") String jwtSecret) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
     
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -42,28 +47,33 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
     
-    public String generateToken(UserDetails userDetails, Long userId, String role) {
-        return generateToken(new HashMap<>(), userDetails, userId, role);
-    }
-    
-    public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails, Long userId, String role) {
-        return buildToken(extraClaims, userDetails, userId, role, jwtExpiration);
+    /**
+     * Signs a short-lived access token. {@code jti} identifies it for revocation; the user id and
+     * role travel as claims so requests are authenticated without loading the user.
+     */
+    public String generateAccessToken(String jti, String username, Long userId, String role) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .id(jti)
+                .subject(username)
+                .claim("userId", userId)
+                .claim("role", role)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jwtExpiration))
+                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .compact();
     }
     
     public long getExpirationTime() {
         return jwtExpiration;
     }
     
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, Long userId, String role, long expiration) {
-        return Jwts.builder()
-                .claims(extraClaims)
-                .subject(userDetails.getUsername())
-                .claim("userId", userId)
-                .claim("role", role)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
-                .compact();
+    /**
+     * Verifies the signature and expiry and returns the claims; throws a {@code JwtException}
+     * otherwise.
+     */
+    public Claims parseAccessToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
@@ -80,15 +90,10 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parseAccessToken(token);
     }
     
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
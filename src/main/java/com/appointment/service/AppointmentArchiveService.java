@@ -0,0 +1,106 @@
+package com.appointment.service;
+
+import com.appointment.config.ArchiveProperties;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.event.AppointmentsArchivedEvent;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.ArchivedAppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@code appointments} limited to recent and upcoming rows. Appointments that ended
+ * before the configured horizon are moved to {@code appointments_history} in small batches,
+ * each in its own transaction. Several nodes may run the job at once: each batch locks its
+ * rows with {@code SKIP LOCKED}, so concurrent runs work on disjoint batches.
+ */
+@Service
+@Slf4j
+public class AppointmentArchiveService {
+    
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final ArchiveProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    
+    public AppointmentArchiveService(AppointmentRepository appointmentRepository,
+                                     ArchivedAppointmentRepository archivedAppointmentRepository,
+                                     ArchiveProperties properties,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("appointment.archived")
+                .description("Appointments moved to appointments_history")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        archiveOldAppointments();
+    }
+    
+    /**
+     * Archives appointments that ended before now minus the horizon.
+     *
+     * @return the number of rows moved
+     */
+    public int archiveOldAppointments() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getHorizon());
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            Integer moved = transactionTemplate.execute(status -> moveBatch(cutoff));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+        }
+        if (total > 0) {
+            log.info("Archived {} appointments that ended before {}", total, cutoff);
+        }
+        return total;
+    }
+    
+    private int moveBatch(LocalDateTime cutoff) {
+        List<Long> ids = appointmentRepository.lockIdsEndedBefore(cutoff, properties.getBatchSize());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedAppointmentRepository.copyFromAppointments(ids, LocalDateTime.now());
+        int moved = appointmentRepository.deleteByIdIn(ids);
+        eventPublisher.publishEvent(new AppointmentsArchivedEvent(List.copyOf(ids)));
+        archivedCounter.increment(moved);
+        return moved;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AppointmentResponse> getHistory(LocalDateTime from, LocalDateTime to) {
+        return archivedAppointmentRepository.findHistoryBetween(from, to).stream()
+                .map(AppointmentResponse::fromArchived)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AppointmentResponse> getUserHistory(Long userId) {
+        return archivedAppointmentRepository.findHistoryByUserId(userId).stream()
+                .map(AppointmentResponse::fromArchived)
+                .collect(Collectors.toList());
+    }
+}
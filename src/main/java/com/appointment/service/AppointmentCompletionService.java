@@ -0,0 +1,101 @@
+package com.appointment.service;
+
+import com.appointment.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Marks scheduled appointments whose end time has passed as COMPLETED.
+ * <p>
+ * Each run walks the matching rows in (end_time, id) order in chunks of
+ * {@code app.completion.batch-size}, one short transaction per chunk, continuing after the
+ * last row of the previous chunk (the watermark) instead of rescanning from the start.
+ * Chunks are locked with {@code SKIP LOCKED} and the update re-checks the status, so
+ * nodes running the job at the same time split the work and a row is never completed twice.
+ */
+@Service
+@Slf4j
+public class AppointmentCompletionService {
+    
+    private static final LocalDateTime START_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter completedCounter;
+    private final int batchSize;
+    
+    public AppointmentCompletionService(AppointmentRepository appointmentRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.completion.batch-size:500}") int batchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completedCounter = Counter.builder("appointment.completed")
+                .description("Appointments marked COMPLETED after their end time")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.completion.interval-ms:60000}")
+    public void scheduledCompletion() {
+        completePastAppointments();
+    }
+    
+    /**
+     * @return the number of appointments this call marked COMPLETED
+     */
+    public int completePastAppointments() {
+        LocalDateTime now = LocalDateTime.now();
+        Watermark watermark = new Watermark(START_WATERMARK, 0L);
+        int total = 0;
+        while (watermark != null) {
+            Watermark after = watermark;
+            Chunk chunk = transactionTemplate.execute(status -> completeChunk(now, after));
+            total += chunk.completed();
+            watermark = chunk.next();
+        }
+        if (total > 0) {
+            log.info("Marked {} past appointments as completed", total);
+        }
+        return total;
+    }
+    
+    private Chunk completeChunk(LocalDateTime now, Watermark after) {
+        List<Object[]> rows = appointmentRepository.lockEndedScheduledAfter(now, after.endTime(), after.id(), batchSize);
+        if (rows.isEmpty()) {
+            return new Chunk(0, null);
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[1]).longValue());
+        }
+        int completed = appointmentRepository.markCompleted(ids, now);
+        completedCounter.increment(completed);
+        
+        Object[] last = rows.get(rows.size() - 1);
+        Watermark next = rows.size() < batchSize ? null
+                : new Watermark(toLocalDateTime(last[0]), ((Number) last[1]).longValue());
+        return new Chunk(completed, next);
+    }
+    
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+    
+    private record Watermark(LocalDateTime endTime, long id) {
+    }
+    
+    private record Chunk(int completed, Watermark next) {
+    }
+}
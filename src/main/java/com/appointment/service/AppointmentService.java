@@ -2,48 +2,108 @@ package com.appointment.service;
 
 import com.appointment.dto.AppointmentRequest;
 import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.AppointmentSummary;
 import com.appointment.dto.TimeSlotDto;
 import com.appointment.entity.Appointment;
+import com.appointment.entity.Resource;
 import com.appointment.entity.User;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.exception.BadRequestException;
+import com.appointment.exception.ConflictException;
 import com.appointment.repository.AppointmentRepository;
 import com.appointment.repository.UserRepository;
+import com.appointment.service.availability.AvailabilityService;
+import com.appointment.service.availability.BusinessCalendar;
+import com.appointment.service.availability.DayTemplate;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "appointment.service", description = "AppointmentService operation latency")
 public class AppointmentService {
     
+    // Free slots suggested in the body of a 409 for an overlapping booking
+    private static final int CONFLICT_ALTERNATIVES = 3;
+    
+    // Lets a day view bound its scan by start time, see getTimeSlotsForDate
+    public static final Duration MAX_BOOKING_LENGTH = Duration.ofDays(1);
+    
     private final AppointmentRepository appointmentRepository;
     private final UserRepository userRepository;
+    private final ResourceService resourceService;
+    private final WaitlistService waitlistService;
+    private final AvailabilityService availabilityService;
+    private final BusinessCalendar businessCalendar;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public AppointmentResponse createAppointment(Long userId, AppointmentRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        // Check for overlapping appointments
-        validateNoOverlap(request.getStartTime(), request.getEndTime());
-        
-        Appointment appointment = Appointment.builder()
-                .user(user)
-                .title(request.getTitle())
-                .description(request.getDescription())
-                .startTime(request.getStartTime())
-                .endTime(request.getEndTime())
-                .status(Appointment.AppointmentStatus.SCHEDULED)
-                .build();
-        
-        Appointment saved = appointmentRepository.save(appointment);
+        requireValidRange(request.getStartTime(), request.getEndTime());
+        // Serialise bookings on this resource, then insert unless an active appointment overlaps
+        Resource resource = resourceService.lockForBooking(request.getResourceId());
+        Appointment saved = insertIfSlotFree(userId, resource, request.getTitle(), request.getDescription(),
+                request.getStartTime(), request.getEndTime())
+                .orElseThrow(() -> {
+                    meterRegistry.counter("appointment.overlap.rejections").increment();
+                    return new ConflictException("Time slot overlaps with an existing appointment",
+                            availabilityService.nearestAlternatives(resource.getId(), request.getStartTime(),
+                                    request.getEndTime(), CONFLICT_ALTERNATIVES));
+                });
         return AppointmentResponse.fromEntity(saved);
     }
     
+    // The overlap check in insertIfSlotFree only holds for ranges with a positive length
+    static void requireValidRange(LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            throw new BadRequestException("End time must be after start time");
+        }
+        if (Duration.between(startTime, endTime).compareTo(MAX_BOOKING_LENGTH) > 0) {
+            throw new BadRequestException("An appointment may last at most " + MAX_BOOKING_LENGTH.toHours() + " hours");
+        }
+    }
+    
+    /**
+     * Books the range on a resource the caller has locked, or returns empty when an active
+     * appointment overlaps it.
+     */
+    private Optional<Appointment> insertIfSlotFree(Long userId, Resource resource, String title, String description,
+                                                   LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime now = LocalDateTime.now();
+        return appointmentRepository.insertIfSlotFree(userId, resource.getId(), title, description, startTime, endTime, now)
+                .map(id -> {
+                    // Inserted with plain SQL, so this copy is never managed; the user comes from the second-level cache
+                    Appointment saved = Appointment.builder()
+                            .id(id)
+                            .user(userRepository.getReferenceById(userId))
+                            .resource(resource)
+                            .title(title)
+                            .description(description)
+                            .startTime(startTime)
+                            .endTime(endTime)
+                            .status(Appointment.AppointmentStatus.SCHEDULED)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build();
+                    eventPublisher.publishEvent(AppointmentChangedEvent.of(AppointmentChangedEvent.ChangeType.CREATED, saved));
+                    return saved;
+                });
+    }
+    
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getUserAppointments(Long userId) {
         return appointmentRepository.findByUserId(userId).stream()
@@ -53,11 +113,21 @@ public class AppointmentService {
     
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getAllAppointments() {
-        return appointmentRepository.findAll().stream()
+        return appointmentRepository.findAllWithUser().stream()
                 .map(AppointmentResponse::fromEntity)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public List<AppointmentSummary> getUserAppointmentSummaries(Long userId) {
+        return appointmentRepository.findSummariesByUserId(userId);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AppointmentSummary> getAllAppointmentSummaries() {
+        return appointmentRepository.findAllSummaries();
+    }
+    
     @Transactional(readOnly = true)
     public AppointmentResponse getAppointmentById(Long id) {
         Appointment appointment = appointmentRepository.findById(id)
@@ -67,15 +137,39 @@ public class AppointmentService {
     
     @Transactional
     public AppointmentResponse updateAppointment(Long id, AppointmentRequest request) {
+        requireValidRange(request.getStartTime(), request.getEndTime());
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
         
+        LocalDateTime previousStartTime = appointment.getStartTime();
+        LocalDateTime previousEndTime = appointment.getEndTime();
+        Long previousResourceId = appointment.getResource() != null ? appointment.getResource().getId() : null;
+        Appointment.AppointmentStatus previousStatus = appointment.getStatus();
+        // As in a cancellation, the vacated range's resource is locked before the change
+        Optional<Resource> previousResource = lockResourceOf(appointment);
+        
         appointment.setTitle(request.getTitle());
         appointment.setDescription(request.getDescription());
         appointment.setStartTime(request.getStartTime());
         appointment.setEndTime(request.getEndTime());
+        if (request.getResourceId() != null) {
+            appointment.setResource(resourceService.lockForBooking(request.getResourceId()));
+        }
         
-        Appointment updated = appointmentRepository.save(appointment);
+        // Flushed so the promotion's conditional insert sees the appointment at its new time
+        Appointment updated = appointmentRepository.saveAndFlush(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(AppointmentChangedEvent.ChangeType.UPDATED, updated).toBuilder()
+                .previousResourceId(previousResourceId)
+                .previousStartTime(previousStartTime)
+                .previousEndTime(previousEndTime)
+                .previousStatus(previousStatus)
+                .build());
+        boolean moved = !previousStartTime.equals(updated.getStartTime()) || !previousEndTime.equals(updated.getEndTime())
+                || !Objects.equals(previousResourceId, updated.getResource() != null ? updated.getResource().getId() : null);
+        if (moved && previousStatus != Appointment.AppointmentStatus.CANCELLED) {
+            // Finds the range still taken where the new time overlaps it, and leaves the waiter queued
+            previousResource.ifPresent(r -> promoteFromWaitlist(r, previousStartTime, previousEndTime));
+        }
         return AppointmentResponse.fromEntity(updated);
     }
     
@@ -83,69 +177,96 @@ public class AppointmentService {
     public void cancelAppointment(Long id) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        // Taken before the change, in the same order as bookings, so joins and bookings wait for the promotion
+        Optional<Resource> resource = lockResourceOf(appointment);
+        Appointment.AppointmentStatus previousStatus = appointment.getStatus();
+        boolean freesSlot = previousStatus != Appointment.AppointmentStatus.CANCELLED;
         
         appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
-        appointmentRepository.save(appointment);
+        // Flushed so the promotion's conditional insert no longer sees this appointment
+        appointmentRepository.saveAndFlush(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(AppointmentChangedEvent.ChangeType.CANCELLED, appointment).toBuilder()
+                .previousStatus(previousStatus)
+                .build());
+        if (freesSlot) {
+            resource.ifPresent(r -> promoteFromWaitlist(r, appointment.getStartTime(), appointment.getEndTime()));
+        }
     }
     
     @Transactional
     public void deleteAppointment(Long id) {
-        if (!appointmentRepository.existsById(id)) {
-            throw new RuntimeException("Appointment not found");
+        Appointment appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Optional<Resource> resource = lockResourceOf(appointment);
+        boolean freesSlot = appointment.getStatus() != Appointment.AppointmentStatus.CANCELLED;
+        
+        appointmentRepository.delete(appointment);
+        appointmentRepository.flush();
+        eventPublisher.publishEvent(AppointmentChangedEvent.of(AppointmentChangedEvent.ChangeType.DELETED, appointment));
+        if (freesSlot) {
+            resource.ifPresent(r -> promoteFromWaitlist(r, appointment.getStartTime(), appointment.getEndTime()));
+        }
+    }
+    
+    private Optional<Resource> lockResourceOf(Appointment appointment) {
+        return appointment.getResource() != null
+                ? resourceService.lockIfActive(appointment.getResource().getId())
+                : Optional.empty();
+    }
+    
+    /**
+     * Books the freed range for the head of its waitlist, in the transaction that freed it. If
+     * another appointment still overlaps the range, the waiter keeps their place.
+     */
+    private void promoteFromWaitlist(Resource resource, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isAfter(LocalDateTime.now())) {
+            return;
         }
-        appointmentRepository.deleteById(id);
+        waitlistService.lockHead(resource.getId(), startTime, endTime).ifPresent(entry ->
+                insertIfSlotFree(entry.getUser().getId(), resource, entry.getTitle(), entry.getDescription(), startTime, endTime)
+                        .ifPresent(promoted -> waitlistService.markPromoted(entry, promoted.getId())));
     }
     
+    /**
+     * The day's slots on the resource, from the weekday's precomputed template. Appointments
+     * come back sorted by start and are swept once alongside the slots, so the cost is linear
+     * in slots plus appointments.
+     */
     @Transactional(readOnly = true)
-    public List<TimeSlotDto> getTimeSlotsForDate(LocalDateTime date) {
-        LocalDateTime startOfDay = date.toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        
-        // Get all appointments for the date
-        List<Appointment> bookedAppointments = appointmentRepository.findByDate(startOfDay, endOfDay);
-        
-        // Generate all possible 1-hour slots from 8 AM to 6 PM
-        List<TimeSlotDto> slots = new ArrayList<>();
-        LocalDateTime currentSlot = startOfDay.withHour(8).withMinute(0).withSecond(0).withNano(0);
+    public List<TimeSlotDto> getTimeSlotsForDate(LocalDateTime date, Long resourceId) {
+        LocalDate day = date.toLocalDate();
+        DayTemplate template = businessCalendar.templateFor(day);
+        if (template.isClosed()) {
+            return new ArrayList<>();
+        }
+        LocalDateTime opens = day.atTime(template.opens());
+        LocalDateTime closes = day.atTime(template.closes());
+        // The lower bound keeps the index range scan to about a day; requireValidRange caps every booking's length
+        List<Appointment> booked = appointmentRepository.findActiveOverlapping(
+                resourceService.resolveResourceId(resourceId), opens.minus(MAX_BOOKING_LENGTH), opens, closes);
         
-        while (currentSlot.getHour() < 18) {
-            LocalDateTime slotEnd = currentSlot.plusHours(1);
-            
-            // Check if this slot overlaps with any booked appointment
-            boolean isBooked = false;
-            String bookedTitle = null;
-            String bookedStatus = null;
-            
-            for (Appointment appt : bookedAppointments) {
-                if (appt.getStatus() != Appointment.AppointmentStatus.CANCELLED) {
-                    // Check for overlap
-                    if (appt.getStartTime().isBefore(slotEnd) && appt.getEndTime().isAfter(currentSlot)) {
-                        isBooked = true;
-                        bookedTitle = appt.getTitle();
-                        bookedStatus = appt.getStatus().name();
-                        break;
-                    }
+        List<TimeSlotDto> slots = new ArrayList<>(template.slotCount());
+        int next = 0;
+        // The appointment that reaches furthest among those started before the current slot ends
+        Appointment covering = null;
+        for (int slot = 0; slot < template.slotCount(); slot++) {
+            LocalDateTime slotStart = day.atTime(template.start(slot));
+            LocalDateTime slotEnd = day.atTime(template.end(slot));
+            while (next < booked.size() && booked.get(next).getStartTime().isBefore(slotEnd)) {
+                Appointment candidate = booked.get(next++);
+                if (covering == null || candidate.getEndTime().isAfter(covering.getEndTime())) {
+                    covering = candidate;
                 }
             }
-            
+            boolean isBooked = covering != null && covering.getEndTime().isAfter(slotStart);
             slots.add(TimeSlotDto.builder()
-                    .startTime(currentSlot)
+                    .startTime(slotStart)
                     .endTime(slotEnd)
                     .available(!isBooked)
-                    .title(isBooked ? bookedTitle : "Available")
-                    .status(isBooked ? bookedStatus : "AVAILABLE")
+                    .title(isBooked ? covering.getTitle() : "Available")
+                    .status(isBooked ? covering.getStatus().name() : "AVAILABLE")
                     .build());
-            
-            currentSlot = currentSlot.plusHours(1);
         }
-        
         return slots;
     }
-    
-    private void validateNoOverlap(LocalDateTime startTime, LocalDateTime endTime) {
-        List<Appointment> overlaps = appointmentRepository.findAppointmentsBetweenDates(startTime, endTime);
-        if (!overlaps.isEmpty()) {
-            throw new RuntimeException("Time slot overlaps with an existing appointment");
-        }
-    }
 }
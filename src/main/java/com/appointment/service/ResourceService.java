@@ -0,0 +1,126 @@
+package com.appointment.service;
+
+import com.appointment.dto.ResourceRequest;
+import com.appointment.dto.ResourceResponse;
+import com.appointment.entity.Resource;
+import com.appointment.repository.ResourceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ResourceService {
+
+    public static final String DEFAULT_RESOURCE_NAME = "General";
+
+    // How long a node trusts its default resource before looking again; another node may deactivate it
+    private static final Duration DEFAULT_RESOURCE_TTL = Duration.ofSeconds(30);
+
+    private final ResourceRepository resourceRepository;
+
+    // Requests without a resource book the first active one
+    private volatile DefaultResource defaultResource;
+
+    @Transactional(readOnly = true)
+    public List<ResourceResponse> getActiveResources() {
+        return resourceRepository.findByActiveTrueOrderByNameAsc().stream()
+                .map(ResourceResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public ResourceResponse createResource(ResourceRequest request) {
+        if (resourceRepository.existsByName(request.getName())) {
+            throw new RuntimeException("A resource with this name already exists");
+        }
+        Resource resource = Resource.builder()
+                .name(request.getName())
+                .type(request.getType())
+                .active(true)
+                .build();
+        return ResourceResponse.fromEntity(resourceRepository.save(resource));
+    }
+
+    @Transactional
+    public void deactivateResource(Long id) {
+        Resource resource = resourceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Resource not found"));
+        resource.setActive(false);
+        DefaultResource current = defaultResource;
+        if (current != null && id.equals(current.id())) {
+            defaultResource = null;
+        }
+    }
+
+    /**
+     * Returns the requested resource id, or the default resource's id when none was given.
+     * The default is looked up again every {@link #DEFAULT_RESOURCE_TTL}, so reads follow a
+     * deactivation on another node within that time; bookings re-check it under the lock.
+     */
+    public Long resolveResourceId(Long resourceId) {
+        if (resourceId != null) {
+            return resourceId;
+        }
+        DefaultResource current = defaultResource;
+        if (current == null || current.isStale()) {
+            Long id = resourceRepository.findFirstByActiveTrueOrderByIdAsc()
+                    .map(Resource::getId)
+                    .orElseThrow(() -> new RuntimeException("No bookable resource is configured"));
+            current = new DefaultResource(id, System.nanoTime());
+            defaultResource = current;
+        }
+        return current.id();
+    }
+
+    /**
+     * Locks the resource for the rest of the current transaction. Bookings on one resource
+     * are serialised, so their overlap checks cannot race; other resources are unaffected.
+     */
+    @Transactional
+    public Resource lockForBooking(Long resourceId) {
+        Optional<Resource> locked = resourceRepository.findByIdForUpdate(resolveResourceId(resourceId));
+        if (resourceId == null && locked.map(resource -> !resource.isActive()).orElse(true)) {
+            // The remembered default was deactivated or removed, possibly on another node
+            defaultResource = null;
+            locked = resourceRepository.findByIdForUpdate(resolveResourceId(null));
+        }
+        Resource resource = locked.orElseThrow(() -> new RuntimeException("Resource not found"));
+        if (!resource.isActive()) {
+            throw new RuntimeException("Resource is not available for booking");
+        }
+        return resource;
+    }
+
+    /**
+     * Locks the resource like {@link #lockForBooking}, or returns empty when it no longer takes
+     * bookings. Used when an appointment frees its slot, which must succeed either way.
+     */
+    @Transactional
+    public Optional<Resource> lockIfActive(Long resourceId) {
+        return resourceRepository.findByIdForUpdate(resourceId).filter(Resource::isActive);
+    }
+
+    @Transactional
+    public Resource ensureDefaultResource() {
+        Resource resource = resourceRepository.findFirstByActiveTrueOrderByIdAsc()
+                .orElseGet(() -> resourceRepository.save(Resource.builder()
+                        .name(DEFAULT_RESOURCE_NAME)
+                        .type(Resource.ResourceType.ROOM)
+                        .active(true)
+                        .build()));
+        defaultResource = new DefaultResource(resource.getId(), System.nanoTime());
+        return resource;
+    }
+
+    private record DefaultResource(Long id, long resolvedAtNanos) {
+        boolean isStale() {
+            return System.nanoTime() - resolvedAtNanos > DEFAULT_RESOURCE_TTL.toNanos();
+        }
+    }
+}
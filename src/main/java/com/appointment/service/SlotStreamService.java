@@ -0,0 +1,329 @@
+package com.appointment.service;
+
+import com.appointment.dto.SlotChangeDto;
+import com.appointment.dto.TimeSlotDto;
+import com.appointment.entity.Appointment;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.exception.BadRequestException;
+import com.appointment.repository.AppointmentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes slot availability changes to clients subscribed to a date and resource over
+ * Server-Sent Events.
+ * <p>
+ * Emitters are servlet async requests, so an idle subscriber holds a socket but no thread.
+ * After a change commits, the touched dates that have subscribers are recomputed once
+ * each on a single fan-out thread, so the booking request never waits on the push. Each
+ * subscribed date keeps the slots last computed for it, and only the slots that differ
+ * are serialised, once, and queued for every subscriber.
+ * <p>
+ * Changes made on other nodes publish no event here. A periodic refresh finds rows whose
+ * {@code updated_at} moved and recomputes the subscribed dates of their resources, which
+ * also catches an appointment moved off a date, since that date's stored slots still
+ * show it.
+ * <p>
+ * Writes happen on a small pool ({@code app.slot-stream.send-threads}), one subscriber at a
+ * time per thread and in order per subscriber, so a slow client delays only its own events.
+ * A client whose queue reaches {@code app.slot-stream.max-queued-events} is completed; the
+ * frontend reads the stream with {@code fetch}, so it reconnects after a short pause and
+ * loads the day afresh.
+ */
+@Service
+@Slf4j
+public class SlotStreamService {
+    
+    public static final int MAX_DATES_PER_SUBSCRIPTION = 31;
+    
+    private static final int PAGE_SIZE = 1000;
+    // Re-reads a little history each pass so commits that landed out of order are not missed
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+    
+    private final AppointmentService appointmentService;
+    private final AppointmentRepository appointmentRepository;
+    private final ResourceService resourceService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate primaryRead;
+    private final long timeoutMillis;
+    private final int maxQueuedEvents;
+    
+    private final Map<SlotKey, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> emitters = ConcurrentHashMap.newKeySet();
+    // Slots last computed for each subscribed date; only touched on the fan-out thread
+    private final Map<SlotKey, List<TimeSlotDto>> lastSlots = new HashMap<>();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slot-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService sendPool;
+    
+    private volatile LocalDateTime refreshedThrough = LocalDateTime.now();
+    
+    public SlotStreamService(AppointmentService appointmentService,
+                             AppointmentRepository appointmentRepository,
+                             ResourceService resourceService,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.slot-stream.timeout-ms:1800000}") long timeoutMillis,
+                             @Value("${app.slot-stream.send-threads:4}") int sendThreads,
+                             @Value("${app.slot-stream.max-queued-events:32}") int maxQueuedEvents) {
+        this.appointmentService = appointmentService;
+        this.appointmentRepository = appointmentRepository;
+        this.resourceService = resourceService;
+        this.objectMapper = objectMapper;
+        // Not read-only, so the slots are read from the primary; a replica may not have the change yet
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.timeoutMillis = timeoutMillis;
+        this.maxQueuedEvents = maxQueuedEvents;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // At most one queued task per subscriber, so the queue is bounded by the subscriber count
+        this.sendPool = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "slot-stream-send-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("slots.stream.subscribers", emitters, Set::size)
+                .description("Open slot availability streams")
+                .register(meterRegistry);
+    }
+    
+    public SseEmitter subscribe(List<LocalDate> dates, Long resourceId) {
+        if (dates.isEmpty() || dates.size() > MAX_DATES_PER_SUBSCRIPTION) {
+            throw new BadRequestException("Subscribe to between 1 and " + MAX_DATES_PER_SUBSCRIPTION + " dates");
+        }
+        Long resolvedResourceId = resourceService.resolveResourceId(resourceId);
+        List<SlotKey> keys = dates.stream().distinct().map(date -> new SlotKey(date, resolvedResourceId)).toList();
+        
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        Runnable unsubscribe = () -> {
+            emitters.remove(subscriber);
+            keys.forEach(key -> subscribers.computeIfPresent(key, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            }));
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        
+        emitters.add(subscriber);
+        for (SlotKey key : keys) {
+            subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            // Queued ahead of any publish that can reach this subscriber, so its first change is
+            // diffed against the slots as they were when it subscribed
+            fanOut.execute(() -> remember(key));
+        }
+        return emitter;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Set<SlotKey> changed = new LinkedHashSet<>();
+        addChange(changed, event.getResourceId(), event.getStartTime(), event.getEndTime());
+        if (event.getPreviousStartTime() != null) {
+            addChange(changed, event.getPreviousResourceId(), event.getPreviousStartTime(), event.getPreviousEndTime());
+        }
+        if (!changed.isEmpty()) {
+            fanOut.execute(() -> changed.forEach(this::publish));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.slot-stream.refresh-interval-ms:10000}")
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        if (subscribers.isEmpty()) {
+            refreshedThrough = started;
+            return;
+        }
+        LocalDateTime since = refreshedThrough.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        Set<Long> resourceIds = new HashSet<>();
+        long afterId = 0;
+        while (true) {
+            LocalDateTime pageSince = since;
+            long after = afterId;
+            List<Appointment> page = primaryRead.execute(status ->
+                    appointmentRepository.findPageWithUserUpdatedAfter(pageSince, after, PageRequest.of(0, PAGE_SIZE)));
+            for (Appointment appointment : page) {
+                if (appointment.getResource() != null) {
+                    resourceIds.add(appointment.getResource().getId());
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            Appointment last = page.get(page.size() - 1);
+            since = last.getUpdatedAt();
+            afterId = last.getId();
+        }
+        refreshedThrough = started;
+        // Rows re-read within the overlap recompute to the stored slots and send nothing
+        fanOut.execute(() -> {
+            lastSlots.keySet().retainAll(subscribers.keySet());
+            subscribers.keySet().stream()
+                    .filter(key -> resourceIds.contains(key.resourceId()))
+                    .toList()
+                    .forEach(this::publish);
+        });
+    }
+    
+    // Keeps idle connections alive through proxies and clears out clients that went away
+    @Scheduled(fixedRateString = "${app.slot-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        fanOut.execute(() -> emitters.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("ping"))));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        sendPool.shutdownNow();
+        emitters.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    private void addChange(Set<SlotKey> changed, Long resourceId, LocalDateTime start, LocalDateTime end) {
+        if (resourceId == null || start == null || end == null) {
+            return;
+        }
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+            SlotKey key = new SlotKey(date, resourceId);
+            if (subscribers.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+    }
+    
+    private void remember(SlotKey key) {
+        if (!subscribers.containsKey(key) || lastSlots.containsKey(key)) {
+            return;
+        }
+        try {
+            lastSlots.put(key, slotsFor(key));
+        } catch (RuntimeException e) {
+            log.warn("Failed to load slots for {}: {}", key, e.getMessage());
+        }
+    }
+    
+    private void publish(SlotKey key) {
+        Set<Subscriber> targets = subscribers.get(key);
+        if (targets == null || targets.isEmpty()) {
+            lastSlots.remove(key);
+            return;
+        }
+        try {
+            List<TimeSlotDto> slots = slotsFor(key);
+            List<TimeSlotDto> previous = lastSlots.put(key, slots);
+            // Without stored slots to compare against, the whole day is sent
+            List<TimeSlotDto> changed = previous == null ? slots : slots.stream()
+                    .filter(slot -> !previous.contains(slot))
+                    .toList();
+            if (changed.isEmpty()) {
+                return;
+            }
+            String data = objectMapper.writeValueAsString(SlotChangeDto.builder()
+                    .date(key.date())
+                    .resourceId(key.resourceId())
+                    .slots(changed)
+                    .build());
+            targets.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().name("slots").data(data)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to publish slot changes for {}: {}", key, e.getMessage());
+        }
+    }
+    
+    private List<TimeSlotDto> slotsFor(SlotKey key) {
+        return primaryRead.execute(status ->
+                appointmentService.getTimeSlotsForDate(key.date().atStartOfDay(), key.resourceId()));
+    }
+    
+    /**
+     * An open stream and the events waiting to be written to it.
+     */
+    private class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (queued.incrementAndGet() > maxQueuedEvents) {
+                queued.decrementAndGet();
+                log.debug("Closing a slot stream that fell {} events behind", maxQueuedEvents);
+                emitter.complete();
+                return;
+            }
+            pending.add(event);
+            scheduleDrain();
+        }
+        
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sendPool.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+        
+        private void drain() {
+            SseEmitter.SseEventBuilder event;
+            while ((event = pending.poll()) != null) {
+                queued.decrementAndGet();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    pending.clear();
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+            draining.set(false);
+            // An event queued after the last poll but before the flag was cleared
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+    
+    private record SlotKey(LocalDate date, Long resourceId) {
+    }
+}
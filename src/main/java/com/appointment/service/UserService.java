@@ -2,8 +2,11 @@ package com.appointment.service;
 
 import com.appointment.dto.RegisterRequest;
 import com.appointment.entity.User;
+import com.appointment.exception.ConflictException;
 import com.appointment.repository.UserRepository;
+import com.appointment.service.registration.RegisteredEmails;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,13 +19,14 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RegisteredEmails registeredEmails;
     
+    /**
+     * Inserts the user in one statement and lets the unique index on {@code email} reject
+     * duplicates, so two concurrent sign-ups with the same email cannot both succeed.
+     */
     @Transactional
     public User registerUser(RegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email is already registered");
-        }
-        
         User user = User.builder()
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
@@ -31,7 +35,22 @@ public class UserService {
                 .role(User.UserRole.USER)
                 .build();
         
-        return userRepository.save(user);
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Email is the only unique column; the other columns are validated on the request
+            throw new ConflictException("Email is already registered");
+        }
+        registeredEmails.add(user.getEmail());
+        return user;
+    }
+    
+    /**
+     * Whether the email is free to register. Emails the in-memory filter has never seen are
+     * answered without a query; the rest are checked against the database.
+     */
+    public boolean isEmailAvailable(String email) {
+        return !registeredEmails.mightBeRegistered(email) || !userRepository.existsByEmail(email);
     }
     
     public Optional<User> findByEmail(String email) {
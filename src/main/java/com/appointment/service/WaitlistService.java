@@ -0,0 +1,100 @@
+package com.appointment.service;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.dto.WaitlistResponse;
+import com.appointment.entity.Resource;
+import com.appointment.entity.WaitlistEntry;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.appointment.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Waitlists for taken time ranges. Joining takes the same resource lock as booking and
+ * cancelling, so a join never slips in between a cancellation and its promotion; see
+ * {@code AppointmentService#cancelAppointment} for the promotion itself.
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+    
+    private static final PageRequest HEAD = PageRequest.of(0, 1);
+    
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final UserRepository userRepository;
+    private final ResourceService resourceService;
+    private final MeterRegistry meterRegistry;
+    
+    @Transactional
+    public WaitlistResponse join(Long userId, AppointmentRequest request) {
+        // A promotion books the range as it stands, so it has to be bookable
+        AppointmentService.requireValidRange(request.getStartTime(), request.getEndTime());
+        Resource resource = resourceService.lockForBooking(request.getResourceId());
+        if (!appointmentRepository.existsActiveOverlap(resource.getId(), request.getStartTime(), request.getEndTime())) {
+            throw new RuntimeException("Time slot is available; book it instead");
+        }
+        if (waitlistEntryRepository.isWaiting(userId, resource.getId(), request.getStartTime(), request.getEndTime())) {
+            throw new RuntimeException("Already on the waitlist for this time slot");
+        }
+        WaitlistEntry entry = waitlistEntryRepository.save(WaitlistEntry.builder()
+                .user(userRepository.getReferenceById(userId))
+                .resource(resource)
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .build());
+        meterRegistry.counter("waitlist.joins").increment();
+        return WaitlistResponse.fromEntity(entry);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<WaitlistResponse> getUserEntries(Long userId) {
+        return waitlistEntryRepository.findByUserId(userId).stream()
+                .map(WaitlistResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional
+    public void leave(Long userId, Long id) {
+        if (waitlistEntryRepository.leave(id, userId) == 0) {
+            throw new RuntimeException("Waitlist entry not found or already promoted");
+        }
+    }
+    
+    @Transactional
+    public WaitlistResponse setPriority(Long id, int priority) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+        entry.setPriority(priority);
+        return WaitlistResponse.fromEntity(entry);
+    }
+    
+    /**
+     * Locks the next user waiting for exactly this range, if any. Called with the resource
+     * already locked by the cancelling transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WaitlistEntry> lockHead(Long resourceId, LocalDateTime startTime, LocalDateTime endTime) {
+        return waitlistEntryRepository.lockHead(resourceId, startTime, endTime, HEAD).stream().findFirst();
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markPromoted(WaitlistEntry entry, Long appointmentId) {
+        entry.setStatus(WaitlistEntry.WaitlistStatus.PROMOTED);
+        entry.setAppointmentId(appointmentId);
+        entry.setPromotedAt(LocalDateTime.now());
+        meterRegistry.counter("waitlist.promotions").increment();
+    }
+}
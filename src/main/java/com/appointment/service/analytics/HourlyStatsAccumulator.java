@@ -0,0 +1,107 @@
+package com.appointment.service.analytics;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.AppointmentHourlyStats;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums what appointments contribute to the hourly rollups, per resource and hour. A change is
+ * the appointment's new contribution minus its old one, so rescheduling, cancelling and
+ * deleting all come down to {@link #add} and {@link #subtract}.
+ * <p>
+ * An appointment counts as one booking, with its lead time (booking to start), in the hour it
+ * starts, plus a cancellation if it is cancelled; unless it is cancelled, its minutes are
+ * spread over the hours it covers.
+ */
+public class HourlyStatsAccumulator {
+    
+    private static final long DAY_MINUTES = Duration.ofDays(1).toMinutes();
+    private static final long WEEK_MINUTES = Duration.ofDays(7).toMinutes();
+    private static final long MONTH_MINUTES = Duration.ofDays(30).toMinutes();
+    
+    private final Map<Key, AppointmentHourlyStats> hours = new LinkedHashMap<>();
+    
+    public void add(Long resourceId, LocalDateTime start, LocalDateTime end,
+                    Appointment.AppointmentStatus status, LocalDateTime createdAt) {
+        apply(resourceId, start, end, status, createdAt, 1);
+    }
+    
+    public void subtract(Long resourceId, LocalDateTime start, LocalDateTime end,
+                         Appointment.AppointmentStatus status, LocalDateTime createdAt) {
+        apply(resourceId, start, end, status, createdAt, -1);
+    }
+    
+    /**
+     * The accumulated rows, leaving out hours whose changes cancelled out.
+     */
+    public Collection<AppointmentHourlyStats> deltas() {
+        return hours.values().stream()
+                .filter(delta -> !isZero(delta))
+                .toList();
+    }
+    
+    private void apply(Long resourceId, LocalDateTime start, LocalDateTime end,
+                       Appointment.AppointmentStatus status, LocalDateTime createdAt, int sign) {
+        if (start == null || end == null) {
+            return;
+        }
+        long resource = resourceId != null ? resourceId : AppointmentHourlyStats.NO_RESOURCE;
+        LocalDateTime startHour = start.truncatedTo(ChronoUnit.HOURS);
+        AppointmentHourlyStats first = row(resource, startHour);
+        first.setBookings(first.getBookings() + sign);
+        boolean cancelled = status == Appointment.AppointmentStatus.CANCELLED;
+        if (cancelled) {
+            first.setCancellations(first.getCancellations() + sign);
+        }
+        if (createdAt != null) {
+            long lead = Math.max(0, Duration.between(createdAt, start).toMinutes());
+            first.setLeadTimeMinutes(first.getLeadTimeMinutes() + sign * lead);
+            if (lead <= DAY_MINUTES) {
+                first.setLeadWithinDay(first.getLeadWithinDay() + sign);
+            } else if (lead <= WEEK_MINUTES) {
+                first.setLeadWithinWeek(first.getLeadWithinWeek() + sign);
+            } else if (lead <= MONTH_MINUTES) {
+                first.setLeadWithinMonth(first.getLeadWithinMonth() + sign);
+            } else {
+                first.setLeadLonger(first.getLeadLonger() + sign);
+            }
+        }
+        if (cancelled) {
+            return;
+        }
+        for (LocalDateTime hour = startHour; hour.isBefore(end); hour = hour.plusHours(1)) {
+            LocalDateTime from = hour.isBefore(start) ? start : hour;
+            LocalDateTime to = hour.plusHours(1).isAfter(end) ? end : hour.plusHours(1);
+            AppointmentHourlyStats row = hour.equals(startHour) ? first : row(resource, hour);
+            row.setBookedMinutes(row.getBookedMinutes() + sign * Duration.between(from, to).toMinutes());
+        }
+    }
+    
+    private AppointmentHourlyStats row(long resourceId, LocalDateTime hourStart) {
+        return hours.computeIfAbsent(new Key(resourceId, hourStart), key -> AppointmentHourlyStats.builder()
+                .resourceId(resourceId)
+                .hourStart(hourStart)
+                .build());
+    }
+    
+    private static boolean isZero(AppointmentHourlyStats delta) {
+        for (long value : List.of(delta.getBookings(), delta.getCancellations(), delta.getBookedMinutes(),
+                delta.getLeadTimeMinutes(), delta.getLeadWithinDay(), delta.getLeadWithinWeek(),
+                delta.getLeadWithinMonth(), delta.getLeadLonger())) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private record Key(long resourceId, LocalDateTime hourStart) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.appointment.service.analytics;
+
+import com.appointment.dto.MonthlyUtilisation;
+import com.appointment.dto.UtilisationHeatmap;
+import com.appointment.entity.Appointment;
+import com.appointment.exception.BadRequestException;
+import com.appointment.repository.AppointmentHourlyStatsRepository;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.ArchivedAppointmentRepository;
+import com.appointment.service.ResourceService;
+import com.appointment.service.availability.BusinessCalendar;
+import com.appointment.service.availability.DayTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+/**
+ * Admin analytics read from the hourly rollups only: a year is at most 8784 summed rows,
+ * however many appointments it held, and the appointments themselves are never scanned.
+ * Open minutes come from the configured business hours, times the number of resources.
+ * <p>
+ * {@link #rebuild} recomputes the rollups from the appointments and their archive; it is
+ * meant for filling the table once after upgrading, or after fixing data by hand.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UtilisationAnalyticsService {
+    
+    private static final long MAX_RANGE_DAYS = 3 * 366;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    
+    private final AppointmentHourlyStatsRepository statsRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final ResourceService resourceService;
+    private final BusinessCalendar businessCalendar;
+    
+    /**
+     * The weekday-by-hour heatmap for appointments starting in {@code [from, to)}, over all
+     * resources when {@code resourceId} is null.
+     */
+    @Transactional(readOnly = true)
+    public UtilisationHeatmap heatmap(LocalDate from, LocalDate to, Long resourceId) {
+        checkRange(from, to);
+        long[][][] totals = new long[7][24][3];
+        for (HourTotals hour : hourTotals(from, to, resourceId)) {
+            long[] cell = totals[hour.hourStart().getDayOfWeek().ordinal()][hour.hourStart().getHour()];
+            cell[0] += hour.bookings();
+            cell[1] += hour.cancellations();
+            cell[2] += hour.bookedMinutes();
+        }
+        long[][] open = new long[7][24];
+        long resources = resourceCount(resourceId);
+        for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+            DayTemplate day = businessCalendar.templateFor(date);
+            for (int hour = 0; hour < 24; hour++) {
+                open[date.getDayOfWeek().ordinal()][hour] += openMinutes(day, hour) * resources;
+            }
+        }
+        
+        List<UtilisationHeatmap.Cell> cells = new ArrayList<>(7 * 24);
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            for (int hour = 0; hour < 24; hour++) {
+                long[] cell = totals[dayOfWeek.ordinal()][hour];
+                long openMinutes = open[dayOfWeek.ordinal()][hour];
+                cells.add(UtilisationHeatmap.Cell.builder()
+                        .dayOfWeek(dayOfWeek)
+                        .hour(hour)
+                        .bookings(cell[0])
+                        .cancellations(cell[1])
+                        .bookedMinutes(cell[2])
+                        .openMinutes(openMinutes)
+                        .utilisation(ratio(cell[2], openMinutes))
+                        .build());
+            }
+        }
+        return UtilisationHeatmap.builder()
+                .from(from)
+                .to(to)
+                .resourceId(resourceId)
+                .cells(cells)
+                .build();
+    }
+    
+    /**
+     * One entry per month from {@code from} to {@code to}, both included, over all resources
+     * when {@code resourceId} is null.
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyUtilisation> monthly(YearMonth from, YearMonth to, Long resourceId) {
+        LocalDate start = from.atDay(1);
+        LocalDate end = to.plusMonths(1).atDay(1);
+        checkRange(start, end);
+        TreeMap<YearMonth, long[]> months = new TreeMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.put(month, new long[8]);
+        }
+        for (HourTotals hour : hourTotals(start, end, resourceId)) {
+            long[] month = months.get(YearMonth.from(hour.hourStart()));
+            month[0] += hour.bookings();
+            month[1] += hour.cancellations();
+            month[2] += hour.bookedMinutes();
+            month[3] += hour.leadTimeMinutes();
+            month[4] += hour.leadWithinDay();
+            month[5] += hour.leadWithinWeek();
+            month[6] += hour.leadWithinMonth();
+            month[7] += hour.leadLonger();
+        }
+        long resources = resourceCount(resourceId);
+        
+        List<MonthlyUtilisation> result = new ArrayList<>(months.size());
+        months.forEach((month, totals) -> {
+            long openMinutes = 0;
+            for (LocalDate date = month.atDay(1); !date.isAfter(month.atEndOfMonth()); date = date.plusDays(1)) {
+                openMinutes += businessCalendar.templateFor(date).window().toMinutes() * resources;
+            }
+            Double averageLeadMinutes = ratio(totals[3], totals[0]);
+            result.add(MonthlyUtilisation.builder()
+                    .month(month)
+                    .bookings(totals[0])
+                    .cancellations(totals[1])
+                    .cancellationRate(ratio(totals[1], totals[0]))
+                    .bookedMinutes(totals[2])
+                    .openMinutes(openMinutes)
+                    .utilisation(ratio(totals[2], openMinutes))
+                    .averageLeadTimeHours(averageLeadMinutes != null ? averageLeadMinutes / 60 : null)
+                    .leadWithinDay(totals[4])
+                    .leadWithinWeek(totals[5])
+                    .leadWithinMonth(totals[6])
+                    .leadLonger(totals[7])
+                    .build());
+        });
+        return result;
+    }
+    
+    /**
+     * Replaces every rollup row with totals recomputed from the appointments and their archive.
+     * <p>
+     * The table is locked first, so a booking whose delta is already written commits before
+     * the appointments are read, and one that arrives later waits and applies its delta on
+     * top of the rebuilt totals; nothing is counted twice. Bookings stall for as long as the
+     * rebuild takes, so run it off-peak, and outside the archive job's window: a row archived
+     * while it runs can be missed.
+     *
+     * @return the number of appointments counted
+     */
+    @Transactional
+    public long rebuild() {
+        statsRepository.lockAgainstWriters();
+        statsRepository.deleteAllInBulk();
+        HourlyStatsAccumulator accumulator = new HourlyStatsAccumulator();
+        long counted = accumulate(accumulator, archivedAppointmentRepository::findRollupPageAfterId)
+                + accumulate(accumulator, appointmentRepository::findRollupPageAfterId);
+        statsRepository.addAll(accumulator.deltas());
+        log.info("Rebuilt utilisation rollups from {} appointments", counted);
+        return counted;
+    }
+    
+    private long accumulate(HourlyStatsAccumulator accumulator, BiFunction<Long, PageRequest, List<Object[]>> pages) {
+        long afterId = 0;
+        long counted = 0;
+        while (true) {
+            List<Object[]> page = pages.apply(afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Object[] row : page) {
+                accumulator.add((Long) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3],
+                        (Appointment.AppointmentStatus) row[4], (LocalDateTime) row[5]);
+            }
+            counted += page.size();
+            if (page.size() < REBUILD_PAGE_SIZE) {
+                return counted;
+            }
+            afterId = (Long) page.get(page.size() - 1)[0];
+        }
+    }
+    
+    private List<HourTotals> hourTotals(LocalDate from, LocalDate to, Long resourceId) {
+        List<Object[]> rows = resourceId == null
+                ? statsRepository.sumByHour(from.atStartOfDay(), to.atStartOfDay())
+                : statsRepository.findByResourceAndHour(resourceId, from.atStartOfDay(), to.atStartOfDay());
+        return rows.stream().map(HourTotals::of).toList();
+    }
+    
+    private long resourceCount(Long resourceId) {
+        return resourceId != null ? 1 : Math.max(1, resourceService.getActiveResources().size());
+    }
+    
+    private static long openMinutes(DayTemplate day, int hour) {
+        if (day.isClosed()) {
+            return 0;
+        }
+        LocalTime hourStart = LocalTime.of(hour, 0);
+        LocalTime from = day.opens().isAfter(hourStart) ? day.opens() : hourStart;
+        long untilClose = ChronoUnit.MINUTES.between(from, day.closes());
+        long untilHourEnd = Duration.ofHours(hour + 1).toMinutes() - from.toSecondOfDay() / 60;
+        return Math.max(0, Math.min(untilClose, untilHourEnd));
+    }
+    
+    private static Double ratio(long part, long whole) {
+        return whole == 0 ? null : (double) part / whole;
+    }
+    
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("The range must end after it starts");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new BadRequestException("The range may cover at most three years");
+        }
+    }
+    
+    private record HourTotals(LocalDateTime hourStart, long bookings, long cancellations, long bookedMinutes,
+                              long leadTimeMinutes, long leadWithinDay, long leadWithinWeek,
+                              long leadWithinMonth, long leadLonger) {
+        
+        static HourTotals of(Object[] row) {
+            return new HourTotals((LocalDateTime) row[0], longValue(row[1]), longValue(row[2]), longValue(row[3]),
+                    longValue(row[4]), longValue(row[5]), longValue(row[6]), longValue(row[7]), longValue(row[8]));
+        }
+        
+        private static long longValue(Object value) {
+            return value == null ? 0 : ((Number) value).longValue();
+        }
+    }
+}
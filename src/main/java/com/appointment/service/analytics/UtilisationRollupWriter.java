@@ -0,0 +1,50 @@
+package com.appointment.service.analytics;
+
+import com.appointment.entity.Appointment;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.repository.AppointmentHourlyStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies every appointment change to {@code appointment_hourly_stats}. Runs synchronously
+ * inside the publishing transaction, like the outbox, so the rollups never drift from the
+ * appointments they summarise. A change touches one row per hour it affects, usually one.
+ */
+@Component
+@RequiredArgsConstructor
+public class UtilisationRollupWriter {
+    
+    private final AppointmentHourlyStatsRepository statsRepository;
+    
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        HourlyStatsAccumulator accumulator = new HourlyStatsAccumulator();
+        switch (event.getType()) {
+            case CREATED -> addCurrent(accumulator, event);
+            case UPDATED -> {
+                accumulator.subtract(event.getPreviousResourceId(), event.getPreviousStartTime(),
+                        event.getPreviousEndTime(), previousStatus(event), event.getCreatedAt());
+                addCurrent(accumulator, event);
+            }
+            case CANCELLED -> {
+                accumulator.subtract(event.getResourceId(), event.getStartTime(), event.getEndTime(),
+                        previousStatus(event), event.getCreatedAt());
+                addCurrent(accumulator, event);
+            }
+            case DELETED -> accumulator.subtract(event.getResourceId(), event.getStartTime(), event.getEndTime(),
+                    event.getStatus(), event.getCreatedAt());
+        }
+        statsRepository.addAll(accumulator.deltas());
+    }
+    
+    private static Appointment.AppointmentStatus previousStatus(AppointmentChangedEvent event) {
+        return event.getPreviousStatus() != null ? event.getPreviousStatus() : event.getStatus();
+    }
+    
+    private static void addCurrent(HourlyStatsAccumulator accumulator, AppointmentChangedEvent event) {
+        accumulator.add(event.getResourceId(), event.getStartTime(), event.getEndTime(),
+                event.getStatus(), event.getCreatedAt());
+    }
+}
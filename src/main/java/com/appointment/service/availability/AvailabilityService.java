@@ -0,0 +1,252 @@
+package com.appointment.service.availability;
+
+import com.appointment.dto.TimeSlotDto;
+import com.appointment.entity.Appointment;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.exception.BadRequestException;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.service.ResourceService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * "Next free slot" searches, answered from a {@link FreeGapIndex} per resource on each node.
+ * <p>
+ * A resource's index is loaded on first use from its active appointments that have not yet
+ * ended, then kept current from this node's committed {@link AppointmentChangedEvent}s. A
+ * periodic refresh re-applies rows whose {@code updated_at} moved, which covers changes made
+ * on other nodes. A row deleted on another node leaves nothing for the refresh to find, so
+ * every loaded index is also rebuilt from the database on a slower schedule.
+ */
+@Service
+@Slf4j
+public class AvailabilityService {
+    
+    public static final int MAX_COUNT = 50;
+    
+    private static final Duration SEARCH_HORIZON = Duration.ofDays(366);
+    private static final int PAGE_SIZE = 1000;
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+    
+    private final AppointmentRepository appointmentRepository;
+    private final ResourceService resourceService;
+    private final BusinessCalendar calendar;
+    private final TransactionTemplate primaryRead;
+    private final Map<Long, FreeGapIndex> indexes = new ConcurrentHashMap<>();
+    
+    private volatile LocalDateTime refreshedThrough;
+    
+    public AvailabilityService(AppointmentRepository appointmentRepository,
+                               ResourceService resourceService,
+                               BusinessCalendar calendar,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.resourceService = resourceService;
+        this.calendar = calendar;
+        // Not read-only, so indexes are loaded from the primary; a replica may be behind the events
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        Gauge.builder("availability.indexed.resources", indexes, Map::size)
+                .description("Resources with a free-gap index on this node")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Returns the first {@code count} free intervals of the given length starting at or after
+     * {@code after} (now when null) on the calendar's slot grid.
+     */
+    public List<TimeSlotDto> findNextAvailable(Long resourceId, LocalDateTime after, Duration length, int count) {
+        if (count < 1 || count > MAX_COUNT) {
+            throw new BadRequestException("count must be between 1 and " + MAX_COUNT);
+        }
+        if (length.isZero() || length.isNegative() || length.compareTo(calendar.longestDay()) > 0) {
+            throw new BadRequestException("Duration must be positive and fit within opening hours");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = after == null || after.isBefore(now) ? now : after;
+        Long id = resourceService.resolveResourceId(resourceId);
+        return toSlots(read(id, index -> index.find(from, from.plus(SEARCH_HORIZON), length, count, calendar)));
+    }
+    
+    /**
+     * Returns up to {@code count} free intervals as long as the rejected one and closest to its
+     * start, earlier ones on the same day included, in start order.
+     */
+    public List<TimeSlotDto> nearestAlternatives(Long resourceId, LocalDateTime start, LocalDateTime end, int count) {
+        Duration length = Duration.between(start, end);
+        if (length.isZero() || length.isNegative() || length.compareTo(calendar.longestDay()) > 0) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dayStart = start.toLocalDate().atStartOfDay();
+        LocalDateTime earliest = dayStart.isBefore(now) ? now : dayStart;
+        LocalDateTime from = start.isBefore(now) ? now : start;
+        List<FreeGapIndex.Interval> candidates = read(resourceId, index -> {
+            List<FreeGapIndex.Interval> found = new ArrayList<>();
+            if (earliest.isBefore(start)) {
+                found.addAll(index.find(earliest, start, length, Integer.MAX_VALUE, calendar));
+            }
+            found.addAll(index.find(from, from.plus(SEARCH_HORIZON), length, count, calendar));
+            return found;
+        });
+        return toSlots(candidates.stream()
+                .sorted(Comparator.comparing((FreeGapIndex.Interval interval) ->
+                        Duration.between(start, interval.start()).abs()))
+                .limit(count)
+                .sorted(Comparator.comparing(FreeGapIndex.Interval::start))
+                .toList());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        long appointmentId = event.getAppointmentId();
+        Long previousResourceId = event.getPreviousResourceId();
+        if (previousResourceId != null && !previousResourceId.equals(event.getResourceId())) {
+            update(previousResourceId, index -> index.release(appointmentId));
+        }
+        if (event.getResourceId() == null) {
+            return;
+        }
+        boolean active = event.getType() != AppointmentChangedEvent.ChangeType.DELETED
+                && event.getStatus() != Appointment.AppointmentStatus.CANCELLED;
+        update(event.getResourceId(), index -> {
+            if (active) {
+                index.occupy(appointmentId, event.getStartTime(), event.getEndTime());
+            } else {
+                index.release(appointmentId);
+            }
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${app.availability.refresh-interval-ms:10000}")
+    public void refresh() {
+        if (refreshedThrough == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = refreshedThrough.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        long afterId = 0;
+        while (true) {
+            LocalDateTime pageSince = since;
+            long after = afterId;
+            List<Appointment> page = primaryRead.execute(status ->
+                    appointmentRepository.findPageWithUserUpdatedAfter(pageSince, after, PageRequest.of(0, PAGE_SIZE)));
+            for (Appointment appointment : page) {
+                if (appointment.getResource() == null) {
+                    continue;
+                }
+                boolean active = appointment.getStatus() != Appointment.AppointmentStatus.CANCELLED;
+                update(appointment.getResource().getId(), index -> {
+                    if (active) {
+                        index.occupy(appointment.getId(), appointment.getStartTime(), appointment.getEndTime());
+                    } else {
+                        index.release(appointment.getId());
+                    }
+                });
+            }
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            Appointment last = page.get(page.size() - 1);
+            since = last.getUpdatedAt();
+            afterId = last.getId();
+        }
+        refreshedThrough = started;
+    }
+    
+    /**
+     * Replaces each loaded index with a fresh load. Changes committed while a resource is
+     * reloaded wait for it in {@link #update}, and later ones from other nodes are within the
+     * refresh overlap.
+     */
+    @Scheduled(fixedDelayString = "${app.availability.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.availability.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (Long resourceId : List.copyOf(indexes.keySet())) {
+            synchronized (indexes) {
+                indexes.put(resourceId, load(resourceId));
+            }
+        }
+    }
+    
+    private <T> T read(Long resourceId, Function<FreeGapIndex, T> query) {
+        FreeGapIndex index = indexFor(resourceId);
+        synchronized (index) {
+            return query.apply(index);
+        }
+    }
+    
+    // Changes to resources this node has not loaded yet are picked up by the load itself
+    private void update(Long resourceId, Consumer<FreeGapIndex> change) {
+        FreeGapIndex index;
+        // Waits for a load in progress, which may have read the database before this change committed
+        synchronized (indexes) {
+            index = indexes.get(resourceId);
+        }
+        if (index != null) {
+            synchronized (index) {
+                change.accept(index);
+            }
+        }
+    }
+    
+    private FreeGapIndex indexFor(Long resourceId) {
+        FreeGapIndex index = indexes.get(resourceId);
+        if (index != null) {
+            return index;
+        }
+        synchronized (indexes) {
+            index = indexes.get(resourceId);
+            if (index == null) {
+                index = load(resourceId);
+                indexes.put(resourceId, index);
+                log.info("Indexed free time for resource {} around {} appointments", resourceId, index.size());
+            }
+            return index;
+        }
+    }
+    
+    private FreeGapIndex load(Long resourceId) {
+        LocalDateTime started = LocalDateTime.now();
+        if (refreshedThrough == null) {
+            refreshedThrough = started;
+        }
+        FreeGapIndex index = new FreeGapIndex();
+        List<Object[]> ranges = primaryRead.execute(status ->
+                appointmentRepository.findActiveRangesEndingAfter(resourceId, started));
+        for (Object[] range : ranges) {
+            index.occupy((Long) range[0], (LocalDateTime) range[1], (LocalDateTime) range[2]);
+        }
+        return index;
+    }
+    
+    private static List<TimeSlotDto> toSlots(List<FreeGapIndex.Interval> intervals) {
+        return intervals.stream()
+                .map(interval -> TimeSlotDto.builder()
+                        .startTime(interval.start())
+                        .endTime(interval.end())
+                        .available(true)
+                        .title("Available")
+                        .status("AVAILABLE")
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.appointment.service.availability;
+
+import com.appointment.config.ScheduleProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opening hours, holidays and slot length from {@code app.schedule}, turned into one immutable
+ * {@link DayTemplate} per weekday when the application starts. Callers mask a template with
+ * the day's appointments instead of generating slots per request.
+ */
+@Component
+public class BusinessCalendar {
+    
+    private static final Set<Duration> SLOT_LENGTHS =
+            Set.of(Duration.ofMinutes(15), Duration.ofMinutes(30), Duration.ofMinutes(60));
+    
+    private final Duration slotLength;
+    private final Map<DayOfWeek, DayTemplate> templates = new EnumMap<>(DayOfWeek.class);
+    private final Set<LocalDate> holidays;
+    private final Duration longestDay;
+    
+    public BusinessCalendar(ScheduleProperties properties) {
+        if (!SLOT_LENGTHS.contains(properties.getSlotLength())) {
+            throw new IllegalStateException("app.schedule.slot-length must be 15, 30 or 60 minutes");
+        }
+        this.slotLength = properties.getSlotLength();
+        this.holidays = Set.copyOf(properties.getHolidays());
+        Duration longest = Duration.ZERO;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            DayTemplate template = template(day, properties);
+            templates.put(day, template);
+            if (template.window().compareTo(longest) > 0) {
+                longest = template.window();
+            }
+        }
+        this.longestDay = longest;
+    }
+    
+    public Duration slotLength() {
+        return slotLength;
+    }
+    
+    /**
+     * The longest bookable interval on any day; longer requests can never be satisfied.
+     */
+    public Duration longestDay() {
+        return longestDay;
+    }
+    
+    public DayTemplate templateFor(LocalDate date) {
+        return holidays.contains(date) ? DayTemplate.CLOSED : templates.get(date.getDayOfWeek());
+    }
+    
+    /**
+     * Returns the first slot start at or after {@code time} with room for {@code length}
+     * before that day's closing, skipping closed days and holidays, or {@code null} when no
+     * day is long enough.
+     */
+    public LocalDateTime firstStartAtOrAfter(LocalDateTime time, Duration length) {
+        if (length.compareTo(longestDay) > 0) {
+            return null;
+        }
+        LocalDate day = time.toLocalDate();
+        // Every weekday comes round within a week of the last holiday in a run
+        for (int i = 0; i <= 7 + holidays.size(); i++) {
+            LocalDateTime start = templateFor(day).firstStartAtOrAfter(day, i == 0 ? time : day.atStartOfDay(), length);
+            if (start != null) {
+                return start;
+            }
+            day = day.plusDays(1);
+        }
+        return null;
+    }
+    
+    private DayTemplate template(DayOfWeek day, ScheduleProperties properties) {
+        ScheduleProperties.DayHours hours = properties.getDays().get(day);
+        if (hours != null && hours.isClosed()) {
+            return DayTemplate.CLOSED;
+        }
+        LocalTime opens = hours != null && hours.getOpens() != null ? hours.getOpens() : properties.getOpens();
+        LocalTime closes = hours != null && hours.getCloses() != null ? hours.getCloses() : properties.getCloses();
+        if (!opens.isBefore(closes)) {
+            throw new IllegalStateException("app.schedule: " + day + " must open before it closes");
+        }
+        return new DayTemplate(opens, closes, slotLength);
+    }
+}
@@ -0,0 +1,85 @@
+package com.appointment.service.availability;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The slots of one kind of day (a weekday's schedule), computed once at startup. Slot starts
+ * fall on a grid from opening time; only slots that end by closing time are included.
+ */
+public final class DayTemplate {
+
+    public static final DayTemplate CLOSED = new DayTemplate(null, null, Duration.ofMinutes(60));
+
+    private final LocalTime opens;
+    private final LocalTime closes;
+    private final Duration slotLength;
+    private final LocalTime[] starts;
+    private final LocalTime[] ends;
+
+    DayTemplate(LocalTime opens, LocalTime closes, Duration slotLength) {
+        this.opens = opens;
+        this.closes = closes;
+        this.slotLength = slotLength;
+        List<LocalTime> slotStarts = new ArrayList<>();
+        if (opens != null) {
+            // Compared as durations from opening, so a day closing at midnight does not wrap
+            Duration window = window();
+            for (Duration offset = Duration.ZERO; offset.plus(slotLength).compareTo(window) <= 0; offset = offset.plus(slotLength)) {
+                slotStarts.add(opens.plus(offset));
+            }
+        }
+        this.starts = slotStarts.toArray(LocalTime[]::new);
+        this.ends = slotStarts.stream().map(start -> start.plus(slotLength)).toArray(LocalTime[]::new);
+    }
+
+    public boolean isClosed() {
+        return starts.length == 0;
+    }
+
+    public int slotCount() {
+        return starts.length;
+    }
+
+    public LocalTime start(int slot) {
+        return starts[slot];
+    }
+
+    public LocalTime end(int slot) {
+        return ends[slot];
+    }
+
+    public LocalTime opens() {
+        return opens;
+    }
+
+    public LocalTime closes() {
+        return closes;
+    }
+
+    public Duration window() {
+        return opens == null ? Duration.ZERO : Duration.between(opens, closes);
+    }
+
+    /**
+     * Returns the first grid start on {@code day} at or after {@code time} that leaves room
+     * for {@code length} before closing, or {@code null} if there is none.
+     */
+    LocalDateTime firstStartAtOrAfter(LocalDate day, LocalDateTime time, Duration length) {
+        if (isClosed() || length.compareTo(window()) > 0) {
+            return null;
+        }
+        LocalDateTime open = day.atTime(opens);
+        LocalDateTime start = open;
+        if (time.isAfter(open)) {
+            long slotNanos = slotLength.toNanos();
+            long elapsed = Duration.between(open, time).toNanos();
+            start = open.plusNanos((elapsed + slotNanos - 1) / slotNanos * slotNanos);
+        }
+        return start.plus(length).isAfter(open.plus(window())) ? null : start;
+    }
+}
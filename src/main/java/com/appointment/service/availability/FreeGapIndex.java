@@ -0,0 +1,160 @@
+package com.appointment.service.availability;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The free time on one resource's calendar, kept as a sorted map of maximal gaps between
+ * active appointments.
+ * <p>
+ * A booking carves its range out of the one or two gaps it touches, and a cancellation puts
+ * the range back, merged with its neighbours, so both cost O(log n) plus the few entries
+ * changed. A search starts at the gap containing its start time and walks forward only over
+ * gaps, never over days or appointments. Appointments may overlap (older rows and admin
+ * edits were never checked), so a release only frees the parts no other appointment covers.
+ * <p>
+ * Not thread-safe; {@link AvailabilityService} guards each instance.
+ */
+public class FreeGapIndex {
+
+    private static final Comparator<Booking> BY_START = Comparator
+            .comparing(Booking::start)
+            .thenComparingLong(Booking::id);
+
+    // Gap start -> gap end (exclusive); the last gap runs to LocalDateTime.MAX
+    private final TreeMap<LocalDateTime, LocalDateTime> gaps = new TreeMap<>();
+    private final TreeSet<Booking> bookings = new TreeSet<>(BY_START);
+    private final Map<Long, Booking> bookingsById = new HashMap<>();
+    // Bounds how far back a booking overlapping a released range can start
+    private Duration longestBooking = Duration.ZERO;
+
+    public FreeGapIndex() {
+        gaps.put(LocalDateTime.MIN, LocalDateTime.MAX);
+    }
+
+    /**
+     * Marks the range as taken by the appointment, replacing any range it held before.
+     */
+    public void occupy(long appointmentId, LocalDateTime start, LocalDateTime end) {
+        release(appointmentId);
+        if (!start.isBefore(end)) {
+            return;
+        }
+        Booking booking = new Booking(appointmentId, start, end);
+        bookings.add(booking);
+        bookingsById.put(appointmentId, booking);
+        Duration length = Duration.between(start, end);
+        if (length.compareTo(longestBooking) > 0) {
+            longestBooking = length;
+        }
+        carve(start, end);
+    }
+
+    /**
+     * Frees the appointment's range, except where another appointment still covers it.
+     */
+    public void release(long appointmentId) {
+        Booking booking = bookingsById.remove(appointmentId);
+        if (booking == null) {
+            return;
+        }
+        bookings.remove(booking);
+
+        LocalDateTime cursor = booking.start();
+        Booking from = new Booking(Long.MIN_VALUE, booking.start().minus(longestBooking), booking.start());
+        Booking to = new Booking(Long.MIN_VALUE, booking.end(), booking.end());
+        for (Booking other : bookings.subSet(from, true, to, false)) {
+            if (!other.end().isAfter(cursor)) {
+                continue;
+            }
+            if (other.start().isAfter(cursor)) {
+                addGap(cursor, other.start());
+            }
+            cursor = other.end();
+            if (!cursor.isBefore(booking.end())) {
+                return;
+            }
+        }
+        addGap(cursor, booking.end());
+    }
+
+    public boolean contains(long appointmentId) {
+        return bookingsById.containsKey(appointmentId);
+    }
+
+    public int size() {
+        return bookingsById.size();
+    }
+
+    /**
+     * Returns up to {@code count} free intervals of the given length that start at or after
+     * {@code from} and before {@code until}, earliest first. Starts fall on the calendar's
+     * slot grid and intervals never cross closing time.
+     */
+    public List<Interval> find(LocalDateTime from, LocalDateTime until, Duration length, int count, BusinessCalendar calendar) {
+        List<Interval> found = new ArrayList<>();
+        Map.Entry<LocalDateTime, LocalDateTime> containing = gaps.floorEntry(from);
+        NavigableMap<LocalDateTime, LocalDateTime> candidates = containing != null && containing.getValue().isAfter(from)
+                ? gaps.subMap(containing.getKey(), true, until, false)
+                : gaps.subMap(from, true, until, false);
+        for (Map.Entry<LocalDateTime, LocalDateTime> gap : candidates.entrySet()) {
+            LocalDateTime gapStart = gap.getKey().isBefore(from) ? from : gap.getKey();
+            LocalDateTime gapEnd = gap.getValue();
+            LocalDateTime start = calendar.firstStartAtOrAfter(gapStart, length);
+            while (start != null && start.isBefore(until) && !start.plus(length).isAfter(gapEnd)) {
+                found.add(new Interval(start, start.plus(length)));
+                if (found.size() == count) {
+                    return found;
+                }
+                start = calendar.firstStartAtOrAfter(start.plus(calendar.slotLength()), length);
+            }
+        }
+        return found;
+    }
+
+    private void carve(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> before = gaps.lowerEntry(start);
+        if (before != null && before.getValue().isAfter(start)) {
+            gaps.put(before.getKey(), start);
+            if (before.getValue().isAfter(end)) {
+                gaps.put(end, before.getValue());
+                return;
+            }
+        }
+        NavigableMap<LocalDateTime, LocalDateTime> inside = gaps.subMap(start, true, end, false);
+        Map.Entry<LocalDateTime, LocalDateTime> last = inside.lastEntry();
+        inside.clear();
+        if (last != null && last.getValue().isAfter(end)) {
+            gaps.put(end, last.getValue());
+        }
+    }
+
+    private void addGap(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> before = gaps.lowerEntry(start);
+        if (before != null && before.getValue().equals(start)) {
+            start = before.getKey();
+        }
+        LocalDateTime after = gaps.remove(end);
+        if (after != null) {
+            end = after;
+        }
+        gaps.put(start, end);
+    }
+
+    public record Interval(LocalDateTime start, LocalDateTime end) {
+    }
+
+    private record Booking(long id, LocalDateTime start, LocalDateTime end) {
+    }
+}
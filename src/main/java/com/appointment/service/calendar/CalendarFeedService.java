@@ -0,0 +1,214 @@
+package com.appointment.service.calendar;
+
+import com.appointment.dto.CalendarEvent;
+import com.appointment.entity.User;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-user iCalendar feeds that calendar apps poll with a secret URL.
+ * <p>
+ * A feed's version (an ETag and a Last-Modified time) is derived from the count, latest
+ * {@code updated_at} and highest id of the user's appointments and kept in memory, so a poll
+ * that sends back the current ETag is answered 304 without touching the database: the token
+ * is checked against the user in the second-level cache. Versions are dropped when this node
+ * commits a change for the user and refreshed from {@code updated_at} for changes made on
+ * other nodes. Deletions elsewhere (including the archive job) leave no {@code updated_at}
+ * behind, so versions also expire after {@code app.calendar.version-ttl}.
+ * <p>
+ * A changed feed is streamed row by row into the response; it is never built in memory.
+ */
+@Service
+public class CalendarFeedService {
+    
+    private static final int SECRET_BYTES = 24;
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+    
+    private final AppointmentRepository appointmentRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final long versionTtlNanos;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<Long, FeedVersion> versions = new ConcurrentHashMap<>();
+    
+    private volatile LocalDateTime refreshedThrough = LocalDateTime.now();
+    
+    public CalendarFeedService(AppointmentRepository appointmentRepository,
+                               UserRepository userRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.calendar.version-ttl:5m}") Duration versionTtl,
+                               MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.userRepository = userRepository;
+        // Not read-only: a lagging replica would hand out an old version under a fresh ETag
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.versionTtlNanos = versionTtl.toNanos();
+        Gauge.builder("calendar.feed.versions", versions, ConcurrentHashMap::size)
+                .description("Calendar feed versions held in memory")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Returns the user's feed token, creating one on first use.
+     */
+    @Transactional
+    public String feedToken(Long userId) {
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getCalendarToken() == null) {
+            user.setCalendarToken(newSecret());
+        }
+        return token(user);
+    }
+    
+    /**
+     * Replaces the user's feed token; subscriptions using the old URL stop working.
+     */
+    @Transactional
+    public String resetToken(Long userId) {
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        user.setCalendarToken(newSecret());
+        return token(user);
+    }
+    
+    /**
+     * Resolves a feed token to its user id. Tokens are {@code <userId>-<secret>}; the user is
+     * normally served from the second-level cache.
+     */
+    public Optional<Long> resolve(String token) {
+        int dash = token.indexOf('-');
+        if (dash <= 0 || dash > 19) {
+            return Optional.empty();
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(token, 0, dash, 10);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        byte[] presented = token.substring(dash + 1).getBytes(StandardCharsets.US_ASCII);
+        return userRepository.findById(userId)
+                .filter(user -> user.getCalendarToken() != null
+                        && MessageDigest.isEqual(presented, user.getCalendarToken().getBytes(StandardCharsets.US_ASCII)))
+                .map(User::getId);
+    }
+    
+    public FeedVersion version(Long userId) {
+        long now = System.nanoTime();
+        FeedVersion cached = versions.get(userId);
+        if (cached != null && cached.etag() != null && now - cached.computedAtNanos() < versionTtlNanos) {
+            return cached;
+        }
+        List<Object[]> rows = primaryTransaction.execute(status -> appointmentRepository.findFeedVersion(userId));
+        Object[] row = rows.get(0);
+        long count = ((Number) row[0]).longValue();
+        LocalDateTime latest = (LocalDateTime) row[1];
+        long maxId = row[2] == null ? 0 : ((Number) row[2]).longValue();
+        
+        String etag = "\"" + Long.toHexString(count) + "-"
+                + Long.toHexString(latest == null ? 0 : toMillis(latest)) + "-" + Long.toHexString(maxId) + "\"";
+        long lastModified = latest == null ? 0 : toMillis(latest);
+        if (cached != null && cached.etag() != null && !cached.etag().equals(etag)
+                && lastModified <= cached.lastModifiedMillis()) {
+            // A deletion changes the feed without moving updated_at
+            lastModified = System.currentTimeMillis();
+        }
+        FeedVersion computed = new FeedVersion(etag, lastModified, now);
+        // An invalidation that arrived while the query ran wins over what it read
+        return versions.compute(userId, (id, existing) ->
+                existing != null && existing.computedAtNanos() > now ? existing : computed);
+    }
+    
+    /**
+     * Writes the user's feed to {@code out}. Runs its own transaction, so it can be called from
+     * the thread that writes the response body.
+     */
+    public void writeFeed(Long userId, OutputStream out) {
+        primaryTransaction.executeWithoutResult(status -> {
+            try (Stream<CalendarEvent> events = appointmentRepository.streamCalendarEvents(userId)) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                IcsWriter ics = new IcsWriter(writer, ZoneId.systemDefault());
+                ics.begin("Appointments");
+                for (CalendarEvent event : (Iterable<CalendarEvent>) events::iterator) {
+                    ics.event(event);
+                }
+                ics.end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.calendar.refresh-interval-ms:10000}")
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = refreshedThrough.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        if (!versions.isEmpty()) {
+            List<Long> changed = primaryTransaction.execute(status -> appointmentRepository.findUserIdsUpdatedAfter(since));
+            changed.forEach(this::invalidate);
+        }
+        long now = System.nanoTime();
+        versions.values().removeIf(version -> now - version.computedAtNanos() >= versionTtlNanos);
+        refreshedThrough = started;
+    }
+    
+    private void invalidate(Long userId) {
+        if (userId != null) {
+            // A marker rather than a removal, so a version read before the commit is not stored over it
+            versions.put(userId, new FeedVersion(null, 0, System.nanoTime()));
+        }
+    }
+    
+    private String newSecret() {
+        byte[] bytes = new byte[SECRET_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    private static String token(User user) {
+        return user.getId() + "-" + user.getCalendarToken();
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * What a conditional GET is compared against. A null ETag marks a version invalidated at
+     * {@code computedAtNanos}.
+     */
+    public record FeedVersion(String etag, long lastModifiedMillis, long computedAtNanos) {
+    }
+}
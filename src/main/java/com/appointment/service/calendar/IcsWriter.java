@@ -0,0 +1,120 @@
+package com.appointment.service.calendar;
+
+import com.appointment.dto.CalendarEvent;
+import com.appointment.entity.Appointment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes an iCalendar (RFC 5545) document one event at a time, so a feed never holds more
+ * than the current event. Times are converted from the server's zone to UTC; text is escaped
+ * and lines are folded at 75 octets as the RFC requires.
+ */
+public class IcsWriter {
+    
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_OCTETS = 75;
+    
+    private final Writer out;
+    private final ZoneId zone;
+    private final StringBuilder line = new StringBuilder(128);
+    
+    public IcsWriter(Writer out, ZoneId zone) {
+        this.out = out;
+        this.zone = zone;
+    }
+    
+    public void begin(String calendarName) throws IOException {
+        property("BEGIN", "VCALENDAR");
+        property("VERSION", "2.0");
+        property("PRODID", "-//Online Appointment System//Appointments//EN");
+        property("CALSCALE", "GREGORIAN");
+        property("METHOD", "PUBLISH");
+        text("X-WR-CALNAME", calendarName);
+    }
+    
+    public void event(CalendarEvent event) throws IOException {
+        property("BEGIN", "VEVENT");
+        property("UID", "appointment-" + event.getId() + "@online-appointments");
+        property("DTSTAMP", utc(event.getUpdatedAt() != null ? event.getUpdatedAt() : event.getStartTime()));
+        property("DTSTART", utc(event.getStartTime()));
+        property("DTEND", utc(event.getEndTime()));
+        text("SUMMARY", event.getTitle());
+        if (event.getDescription() != null && !event.getDescription().isEmpty()) {
+            text("DESCRIPTION", event.getDescription());
+        }
+        if (event.getResourceName() != null) {
+            text("LOCATION", event.getResourceName());
+        }
+        // Cancelled appointments stay in the feed so subscribed calendars remove them
+        property("STATUS", event.getStatus() == Appointment.AppointmentStatus.CANCELLED ? "CANCELLED" : "CONFIRMED");
+        property("END", "VEVENT");
+    }
+    
+    public void end() throws IOException {
+        property("END", "VCALENDAR");
+        out.flush();
+    }
+    
+    private String utc(LocalDateTime time) {
+        return time.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).format(UTC);
+    }
+    
+    private void text(String name, String value) throws IOException {
+        line.setLength(0);
+        line.append(name).append(':');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> line.append('\\').append(c);
+                case '\n' -> line.append("\\n");
+                case '\r' -> { }
+                default -> line.append(c);
+            }
+        }
+        writeFolded();
+    }
+    
+    private void property(String name, String value) throws IOException {
+        line.setLength(0);
+        line.append(name).append(':').append(value);
+        writeFolded();
+    }
+    
+    // Continuation lines start with a space, which counts towards their 75 octets
+    private void writeFolded() throws IOException {
+        int octets = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int width = utf8Width(c);
+            if (octets + width > MAX_LINE_OCTETS) {
+                out.write(CRLF);
+                out.write(' ');
+                octets = 1;
+            }
+            out.write(c);
+            if (Character.isHighSurrogate(c) && i + 1 < line.length()) {
+                out.write(line.charAt(++i));
+            }
+            octets += width;
+        }
+        out.write(CRLF);
+    }
+    
+    // A high surrogate stands for the whole pair; a lone surrogate is over-counted, which only folds early
+    private static int utf8Width(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800) {
+            return 2;
+        }
+        return Character.isHighSurrogate(c) ? 4 : 3;
+    }
+}
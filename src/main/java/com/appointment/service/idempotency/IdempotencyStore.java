@@ -0,0 +1,139 @@
+package com.appointment.service.idempotency;
+
+import com.appointment.config.IdempotencyProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-memory record of requests made with an {@code Idempotency-Key}: in flight, or completed
+ * and replayable until the TTL runs out.
+ * <p>
+ * Entries are kept in insertion order, which is also expiry order, so expired entries are
+ * always at the head. When the store is full the oldest completed entry is dropped; in-flight
+ * entries are never dropped, so a duplicate can always find the request it should wait for.
+ * The store is per node: a retry routed to another node executes again.
+ */
+@Component
+public class IdempotencyStore {
+    
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+    
+    @Autowired
+    public IdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+    
+    IdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.ttlMillis = properties.getTtl().toMillis();
+        this.maxEntries = properties.getMaxEntries();
+        this.clock = clock;
+        Gauge.builder("idempotency.entries", this, IdempotencyStore::size)
+                .description("Idempotency keys currently remembered")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Claims the key for the caller, or returns the request that already holds it. When the
+     * caller becomes the {@link Reservation#owner() owner}, it must finish with
+     * {@link #complete} or {@link #release}.
+     */
+    public synchronized Reservation reserve(String key, String fingerprint) {
+        long now = clock.millis();
+        expire(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return new Reservation(false, existing.fingerprint, existing.response);
+        }
+        makeRoom();
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>(), now);
+        entries.put(key, entry);
+        return new Reservation(true, fingerprint, entry.response);
+    }
+    
+    /**
+     * Stores the response for replay and wakes any duplicates waiting for it.
+     */
+    public void complete(String key, StoredResponse response) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) {
+                entry.completed = true;
+            }
+        }
+        if (entry != null) {
+            entry.response.complete(response);
+        }
+    }
+    
+    /**
+     * Forgets the key after a failure that should not be replayed, so the client's retry runs
+     * again. Waiting duplicates are told to retry as well.
+     */
+    public void release(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.remove(key);
+        }
+        if (entry != null) {
+            entry.response.complete(null);
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private void expire(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (now - entry.createdAt < ttlMillis) {
+                break;
+            }
+            if (entry.completed) {
+                it.remove();
+            }
+        }
+    }
+    
+    private void makeRoom() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            if (it.next().completed) {
+                it.remove();
+            }
+        }
+    }
+    
+    /**
+     * The outcome of {@link #reserve}. The response future completes with the stored response,
+     * or with {@code null} when the owner failed and released the key.
+     */
+    public record Reservation(boolean owner, String fingerprint, CompletableFuture<StoredResponse> response) {
+    }
+    
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response;
+        private final long createdAt;
+        private boolean completed;
+        
+        private Entry(String fingerprint, CompletableFuture<StoredResponse> response, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
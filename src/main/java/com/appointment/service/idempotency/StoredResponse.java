@@ -0,0 +1,13 @@
+package com.appointment.service.idempotency;
+
+import lombok.Value;
+
+/**
+ * A completed response kept for replay.
+ */
+@Value
+public class StoredResponse {
+    int status;
+    String contentType;
+    byte[] body;
+}
@@ -0,0 +1,486 @@
+package com.appointment.service.importing;
+
+import com.appointment.dto.RegisterRequest;
+import com.appointment.dto.UserImportResponse;
+import com.appointment.dto.UserImportResponse.RowResult;
+import com.appointment.dto.UserImportResponse.RowStatus;
+import com.appointment.entity.User;
+import com.appointment.exception.BadRequestException;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.registration.RegisteredEmails;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Registers users in bulk from a CSV or NDJSON upload.
+ * <p>
+ * The file is read line by line and handled in chunks of {@code app.user-import.batch-size}
+ * rows. Each chunk's row results are handed on, in file order, as soon as it is done, and only
+ * the counts outlive it, so memory stays flat however large the file is. For each chunk the rows
+ * are validated like a sign-up, emails repeated in the chunk or already registered (which
+ * includes those created by earlier chunks) are found with one {@code IN} query, the passwords
+ * are BCrypt-hashed in parallel on a bounded pool, and the users are inserted as one JDBC batch
+ * in a transaction of their own. BCrypt dominates the cost, so the
+ * pool size ({@code app.user-import.hash-threads}, default one per core) sets the throughput.
+ * Every row is counted; a bad row never stops the rest of the file.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+    
+    // The user_email query cache is not invalidated by the JDBC batch insert
+    private static final String EMAIL_QUERY_REGION = "user-email-queries";
+    
+    private final UserRepository userRepository;
+    private final RegisteredEmails registeredEmails;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ExecutorService hashPool;
+    private final Timer importTimer;
+    private final MeterRegistry meterRegistry;
+    
+    public UserImportService(UserRepository userRepository,
+                             RegisteredEmails registeredEmails,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             EntityManagerFactory entityManagerFactory,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.user-import.batch-size:500}") int batchSize,
+                             @Value("${app.user-import.hash-threads:0}") int hashThreads,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.registeredEmails = registeredEmails;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A full queue makes the submitting thread hash too, which throttles concurrent imports
+        this.hashPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.importTimer = Timer.builder("users.import")
+                .description("Time taken by bulk user imports")
+                .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+    
+    /**
+     * Starts reading an upload. A CSV header is read and checked here, so a file that cannot be
+     * imported is refused before any result has been sent.
+     */
+    public Upload open(InputStream input, Format format) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            return new Upload(reader, format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader, objectMapper));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Imports the upload and writes it back as NDJSON: a {@link RowResult} line for every row,
+     * flushed chunk by chunk while the import runs, then a final line with the totals.
+     */
+    public void importUsers(Upload upload, OutputStream out) throws IOException {
+        try {
+            UserImportResponse totals = importUsers(upload, results -> {
+                try {
+                    for (RowResult result : results) {
+                        writeLine(out, result);
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writeLine(out, totals);
+            out.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Imports the upload, handing each chunk's row results to {@code onChunk} in file order.
+     *
+     * @return the totals
+     */
+    public UserImportResponse importUsers(Upload upload, Consumer<List<RowResult>> onChunk) {
+        long started = System.nanoTime();
+        Tally tally = new Tally();
+        try (BufferedReader reader = upload.reader) {
+            List<Row> chunk = new ArrayList<>(batchSize);
+            Row row;
+            while ((row = upload.rows.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, tally, onChunk);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, tally, onChunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        long elapsedNanos = System.nanoTime() - started;
+        importTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        UserImportResponse response = tally.summarise(elapsedNanos);
+        log.info("Imported {} of {} users in {} ms ({} rows/s)", response.getCreated(), response.getTotal(),
+                response.getElapsedMillis(), Math.round(response.getRowsPerSecond()));
+        return response;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+    
+    private void importChunk(List<Row> chunk, Tally tally, Consumer<List<RowResult>> onChunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<RowResult> results = new ArrayList<>(chunk.size());
+        importChunk(chunk, results);
+        results.sort(Comparator.comparingLong(RowResult::getLine));
+        results.forEach(tally::add);
+        onChunk.accept(results);
+    }
+    
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+    
+    /*
+     * An email repeated across chunks is reported as already registered: the earlier chunk has
+     * committed by then, so only repeats within the chunk need a set.
+     */
+    private void importChunk(List<Row> chunk, List<RowResult> results) {
+        Set<String> seen = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String problem = row.error() != null ? row.error() : validate(row.request());
+            if (problem != null) {
+                results.add(result(row, RowStatus.INVALID, problem));
+            } else if (!seen.add(row.request().getEmail())) {
+                results.add(result(row, RowStatus.DUPLICATE, "Email appears earlier in the file"));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        
+        Set<String> registered = new HashSet<>(userRepository.findExistingEmails(
+                accepted.stream().map(row -> row.request().getEmail()).toList()));
+        List<Row> fresh = new ArrayList<>(accepted.size());
+        for (Row row : accepted) {
+            if (registered.contains(row.request().getEmail())) {
+                results.add(result(row, RowStatus.DUPLICATE, "Email is already registered"));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        
+        // Hashed before the transaction starts, so no connection is held while BCrypt runs
+        List<CompletableFuture<User>> hashing = fresh.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> toUser(row.request()), hashPool))
+                .toList();
+        List<User> users = hashing.stream().map(CompletableFuture::join).toList();
+        
+        boolean[] inserted = transactionTemplate.execute(status -> userRepository.insertAllSkippingTakenEmails(users));
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(EMAIL_QUERY_REGION);
+        for (int i = 0; i < fresh.size(); i++) {
+            Row row = fresh.get(i);
+            if (inserted[i]) {
+                registeredEmails.add(row.request().getEmail());
+                results.add(result(row, RowStatus.CREATED, null));
+            } else {
+                // Registered by someone else between the check and the insert
+                results.add(result(row, RowStatus.DUPLICATE, "Email is already registered"));
+            }
+        }
+    }
+    
+    private String validate(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .reduce((first, second) -> first + "; " + second)
+                .orElse(null);
+    }
+    
+    private User toUser(RegisterRequest request) {
+        return User.builder()
+                .email(request.getEmail())
+                .password(passwordEncoder.encode(request.getPassword()))
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .role(User.UserRole.USER)
+                .build();
+    }
+    
+    private RowResult result(Row row, RowStatus status, String message) {
+        meterRegistry.counter("users.import.rows", "outcome", status.name().toLowerCase(Locale.ROOT)).increment();
+        return new RowResult(row.line(), row.request() != null ? row.request().getEmail() : null, status, message);
+    }
+    
+    /**
+     * Counts every row by outcome.
+     */
+    private static class Tally {
+        
+        private int total;
+        private int created;
+        private int duplicates;
+        private int invalid;
+        
+        void add(RowResult result) {
+            total++;
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+        
+        UserImportResponse summarise(long elapsedNanos) {
+            double seconds = Math.max(elapsedNanos, 1) / 1e9;
+            return UserImportResponse.builder()
+                    .total(total)
+                    .created(created)
+                    .duplicates(duplicates)
+                    .invalid(invalid)
+                    .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .rowsPerSecond(total / seconds)
+                    .build();
+        }
+    }
+    
+    /**
+     * An upload whose header, if any, has been read; see {@link #open}.
+     */
+    public static final class Upload {
+        
+        private final BufferedReader reader;
+        private final RowReader rows;
+        
+        private Upload(BufferedReader reader, RowReader rows) {
+            this.reader = reader;
+            this.rows = rows;
+        }
+    }
+    
+    /**
+     * A data row: the parsed request, or why it could not be parsed.
+     */
+    record Row(long line, RegisterRequest request, String error) {
+    }
+    
+    interface RowReader {
+        
+        /**
+         * The next data row, or {@code null} at the end of the file. Blank lines are skipped.
+         */
+        Row next() throws IOException;
+    }
+    
+    /**
+     * One JSON object per line with {@code email}, {@code firstName}, {@code lastName} and
+     * {@code password}.
+     */
+    static class NdjsonRowReader implements RowReader {
+        
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+        
+        NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+        
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    RegisterRequest request = objectMapper.readValue(text, RegisterRequest.class);
+                    if (request != null) {
+                        return new Row(line, request, null);
+                    }
+                } catch (JsonProcessingException e) {
+                    // Reported below
+                }
+                return new Row(line, null, "Not a JSON object with the expected fields");
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * A header row naming the columns ({@code email}, {@code firstName} or {@code first_name},
+     * {@code lastName} or {@code last_name}, {@code password}, in any order), then one user per
+     * line. Fields may be double-quoted, with {@code ""} for a quote, but may not span lines.
+     */
+    static class CsvRowReader implements RowReader {
+        
+        private final BufferedReader reader;
+        private long line;
+        private int email = -1;
+        private int firstName = -1;
+        private int lastName = -1;
+        private int password = -1;
+        
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            line++;
+            if (header == null) {
+                throw new BadRequestException("The CSV file is empty");
+            }
+            // A byte order mark, as spreadsheet programs write, is not part of the first column name
+            List<String> columns = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            if (columns == null) {
+                throw new BadRequestException("The CSV header has an unterminated quoted field");
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "")) {
+                    case "email" -> email = i;
+                    case "firstname" -> firstName = i;
+                    case "lastname" -> lastName = i;
+                    case "password" -> password = i;
+                    default -> { }
+                }
+            }
+            if (email < 0 || firstName < 0 || lastName < 0 || password < 0) {
+                throw new BadRequestException("The CSV header must name email, firstName, lastName and password columns");
+            }
+        }
+        
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                List<String> fields = split(text);
+                if (fields == null) {
+                    return new Row(line, null, "Unterminated quoted field");
+                }
+                return new Row(line, RegisterRequest.builder()
+                        .email(field(fields, email))
+                        .firstName(field(fields, firstName))
+                        .lastName(field(fields, lastName))
+                        .password(field(fields, password))
+                        .build(), null);
+            }
+            return null;
+        }
+        
+        private static String field(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index).trim() : null;
+        }
+        
+        // Returns null when a quoted field is not closed
+        static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
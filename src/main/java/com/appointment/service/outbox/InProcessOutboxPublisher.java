@@ -0,0 +1,29 @@
+package com.appointment.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Stand-in {@link OutboxPublisher} that re-publishes each message as a Spring
+ * application event, so in-process {@code @EventListener}s can consume the outbox.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InProcessOutboxPublisher implements OutboxPublisher {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.debug("Outbox {} {} {}#{}", message.getId(), message.getEventType(),
+                    message.getAggregateType(), message.getAggregateId());
+            eventPublisher.publishEvent(message);
+        }
+    }
+}
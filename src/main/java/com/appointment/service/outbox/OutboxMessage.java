@@ -0,0 +1,30 @@
+package com.appointment.service.outbox;
+
+import com.appointment.entity.OutboxEvent;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class OutboxMessage {
+    
+    Long id;
+    String aggregateType;
+    Long aggregateId;
+    String eventType;
+    String payload;
+    LocalDateTime createdAt;
+    
+    public static OutboxMessage fromEntity(OutboxEvent event) {
+        return OutboxMessage.builder()
+                .id(event.getId())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .eventType(event.getEventType())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+}
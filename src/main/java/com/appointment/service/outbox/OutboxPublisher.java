@@ -0,0 +1,16 @@
+package com.appointment.service.outbox;
+
+import java.util.List;
+
+/**
+ * Delivers outbox messages to other systems (a broker, webhooks, ...). Register a
+ * {@code @Primary} bean to replace the in-process stand-in.
+ * <p>
+ * Messages arrive in id order. Delivery is at least once: a batch is published again if
+ * marking it published fails, so consumers should de-duplicate on {@link OutboxMessage#getId()}.
+ * Throwing fails the whole batch, and the relay backs off before retrying it.
+ */
+public interface OutboxPublisher {
+    
+    void publish(List<OutboxMessage> messages);
+}
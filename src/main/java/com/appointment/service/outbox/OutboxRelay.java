@@ -0,0 +1,150 @@
+package com.appointment.service.outbox;
+
+import com.appointment.config.OutboxProperties;
+import com.appointment.entity.OutboxEvent;
+import com.appointment.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code outbox_events} to the {@link OutboxPublisher} in id order.
+ * <p>
+ * Each batch is locked, published and marked published in one transaction. A failed
+ * batch stays pending and is retried first, so nothing overtakes it. After a failure
+ * the relay backs off exponentially instead of hammering a struggling downstream.
+ * Publishing happens on the scheduler thread only, so a slow downstream grows the
+ * backlog ({@code outbox.pending}, {@code outbox.lag}) but never slows a booking.
+ * <p>
+ * Ids come from an identity column and are assigned at insert, so a transaction that
+ * commits late can leave a lower id behind ones already visible. A batch therefore stops
+ * at a gap after the last published id until the next event is older than
+ * {@code app.outbox.gap-grace}; by then the missing id has either committed or rolled back.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPublisher publisher;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    
+    private Duration backoff = Duration.ZERO;
+    private long retryAfter;
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxPublisher publisher,
+                       OutboxProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.publisher = publisher;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = meterRegistry.counter("outbox.published");
+        this.failedCounter = meterRegistry.counter("outbox.publish.failures");
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox events not yet published, as of the last relay run")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public synchronized void relayPending() {
+        if (System.currentTimeMillis() < retryAfter) {
+            return;
+        }
+        try {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                Integer published = transactionTemplate.execute(status -> publishBatch());
+                if (published == null || published < properties.getBatchSize()) {
+                    break;
+                }
+            }
+            backoff = Duration.ZERO;
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            backoff = backoff.isZero() ? properties.getInitialBackoff() : backoff.multipliedBy(2);
+            if (backoff.compareTo(properties.getMaxBackoff()) > 0) {
+                backoff = properties.getMaxBackoff();
+            }
+            retryAfter = System.currentTimeMillis() + backoff.toMillis();
+            log.warn("Outbox publish failed, retrying in {}s: {}", backoff.toSeconds(), e.getMessage());
+        }
+        updateBacklogMetrics();
+    }
+    
+    @Scheduled(cron = "${app.outbox.purge-cron:0 0 4 * * *}")
+    public void purgePublished() {
+        LocalDateTime before = LocalDateTime.now().minus(properties.getRetention());
+        int deleted = 0;
+        int chunk;
+        do {
+            chunk = outboxEventRepository.deletePublishedBefore(before, properties.getPurgeBatchSize());
+            deleted += chunk;
+        } while (chunk == properties.getPurgeBatchSize());
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+    
+    private int publishBatch() {
+        List<OutboxEvent> events = committedInOrder(outboxEventRepository.lockNextPending(properties.getBatchSize()));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        publisher.publish(events.stream().map(OutboxMessage::fromEntity).toList());
+        LocalDateTime now = LocalDateTime.now();
+        events.forEach(event -> event.setPublishedAt(now));
+        publishedCounter.increment(events.size());
+        return events.size();
+    }
+    
+    /**
+     * The leading events that follow the last published id without a gap, or that are old
+     * enough for any gap before them to be settled.
+     */
+    private List<OutboxEvent> committedInOrder(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        Long previous = outboxEventRepository.findLastPublishedId();
+        LocalDateTime settledBefore = LocalDateTime.now().minus(properties.getGapGrace());
+        int ready = 0;
+        for (OutboxEvent event : events) {
+            boolean gap = previous != null && event.getId() > previous + 1;
+            if (gap && event.getCreatedAt().isAfter(settledBefore)) {
+                log.debug("Outbox waiting for ids {}..{} to commit", previous + 1, event.getId() - 1);
+                break;
+            }
+            previous = event.getId();
+            ready++;
+        }
+        return events.subList(0, ready);
+    }
+    
+    private void updateBacklogMetrics() {
+        pending.set(outboxEventRepository.countByPublishedAtIsNull());
+        LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+    }
+}
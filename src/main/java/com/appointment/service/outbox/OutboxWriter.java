@@ -0,0 +1,40 @@
+package com.appointment.service.outbox;
+
+import com.appointment.entity.OutboxEvent;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every appointment change in {@code outbox_events}. Runs synchronously inside
+ * the publishing transaction, so the change and its outbox row commit or roll back together.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+    
+    public static final String AGGREGATE_APPOINTMENT = "appointment";
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise appointment event", e);
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(AGGREGATE_APPOINTMENT)
+                .aggregateId(event.getAppointmentId())
+                .eventType(event.getType().name())
+                .payload(payload)
+                .build());
+    }
+}
@@ -0,0 +1,69 @@
+package com.appointment.service.registration;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over email addresses: {@link #mightContain} never misses an added email, and
+ * answers {@code true} for an email that was not added with about 1% probability while it holds
+ * no more than its capacity.
+ * <p>
+ * Adds and lookups are thread-safe and lock-free. Lookups hash the string in place and do not
+ * allocate. Emails are compared exactly, like the unique index on {@code users.email}.
+ */
+public class EmailBloomFilter {
+    
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ENTRY = 10;
+    
+    private final AtomicLongArray bits;
+    private final long bitMask;
+    private final long capacity;
+    
+    public EmailBloomFilter(long capacity) {
+        this.capacity = Math.max(1, capacity);
+        long wanted = Math.max(64, this.capacity * BITS_PER_ENTRY);
+        long size = Long.highestOneBit(wanted - 1) << 1;
+        this.bits = new AtomicLongArray(Math.toIntExact(size >>> 6));
+        this.bitMask = size - 1;
+    }
+    
+    public long capacity() {
+        return capacity;
+    }
+    
+    public void add(String email) {
+        long h1 = hash(email, 0x9E3779B97F4A7C15L);
+        long h2 = hash(email, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int k = 0; k < HASHES; k++) {
+            long bit = (h1 + k * h2) & bitMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+    
+    public boolean mightContain(String email) {
+        long h1 = hash(email, 0x9E3779B97F4A7C15L);
+        long h2 = hash(email, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int k = 0; k < HASHES; k++) {
+            long bit = (h1 + k * h2) & bitMask;
+            if ((bits.get((int) (bit >>> 6)) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // FNV-1a over the UTF-16 chars, seeded and finished with the SplitMix64 mixer
+    private static long hash(String value, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,121 @@
+package com.appointment.service.registration;
+
+import com.appointment.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers "might this email already be registered?" from an {@link EmailBloomFilter} on each
+ * node, so checking a new email (the common case while someone types a sign-up form) does not
+ * reach the database. A "maybe" still has to be confirmed with a query.
+ * <p>
+ * The filter is built at startup and sized for twice the current users (at least
+ * {@code app.registration.expected-users}); it is rebuilt larger once registrations outgrow it.
+ * This node's registrations are added straight away, other nodes' by a periodic pass over
+ * recently created users. Until the first build every email counts as "maybe". Registration
+ * itself never trusts the filter; the unique index on {@code users.email} decides.
+ */
+@Component
+@Slf4j
+public class RegisteredEmails {
+    
+    private static final int PAGE_SIZE = 5000;
+    // Re-reads a little history each pass so commits that landed out of order are not missed
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+    
+    private final UserRepository userRepository;
+    private final TransactionTemplate readTransaction;
+    private final long expectedUsers;
+    private final Counter filteredChecks;
+    private final Counter maybeChecks;
+    // Over-counts emails re-read by overlapping refreshes, which only brings a rebuild forward
+    private final AtomicLong added = new AtomicLong();
+    
+    private volatile EmailBloomFilter filter;
+    private volatile LocalDateTime refreshedThrough;
+    
+    public RegisteredEmails(UserRepository userRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.registration.expected-users:100000}") long expectedUsers,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.expectedUsers = expectedUsers;
+        this.filteredChecks = meterRegistry.counter("registration.email.checks", "outcome", "filtered");
+        this.maybeChecks = meterRegistry.counter("registration.email.checks", "outcome", "maybe");
+    }
+    
+    /**
+     * {@code false} means the email is certainly not registered (as of the last refresh);
+     * {@code true} means it may be.
+     */
+    public boolean mightBeRegistered(String email) {
+        EmailBloomFilter current = filter;
+        boolean maybe = current == null || current.mightContain(email);
+        (maybe ? maybeChecks : filteredChecks).increment();
+        return maybe;
+    }
+    
+    public void add(String email) {
+        EmailBloomFilter current = filter;
+        if (current != null) {
+            current.add(email);
+            added.incrementAndGet();
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void build() {
+        LocalDateTime started = LocalDateTime.now();
+        long users = readTransaction.execute(status -> userRepository.count());
+        EmailBloomFilter built = new EmailBloomFilter(Math.max(expectedUsers, users * 2));
+        // Registrations made while the filter is built go to the old one; the next refresh re-adds them
+        long afterId = 0;
+        while (true) {
+            long after = afterId;
+            List<Object[]> page = readTransaction.execute(status ->
+                    userRepository.findEmailPageAfterId(after, PageRequest.of(0, PAGE_SIZE)));
+            page.forEach(row -> built.add((String) row[1]));
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            afterId = (Long) page.get(page.size() - 1)[0];
+        }
+        added.set(users);
+        filter = built;
+        refreshedThrough = started;
+        log.info("Loaded {} registered emails (filter capacity {})", users, built.capacity());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.registration.refresh-interval-ms:10000}")
+    public void refresh() {
+        EmailBloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        if (added.get() > current.capacity()) {
+            build();
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = refreshedThrough.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        List<String> emails = readTransaction.execute(status -> userRepository.findEmailsCreatedAfter(since));
+        emails.forEach(current::add);
+        added.addAndGet(emails.size());
+        refreshedThrough = started;
+    }
+}
@@ -0,0 +1,188 @@
+package com.appointment.service.reminder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed hierarchical timing wheel (Varghese and Lauck) keyed by {@code K}.
+ * <p>
+ * Level 0 has one bucket per tick; each higher level has buckets as wide as a full
+ * revolution of the level below. An entry sits in the lowest level whose span covers its
+ * deadline and is moved down ("cascaded") when the level below wraps, so it reaches level
+ * 0 before it is due. Each bucket is an intrusive doubly-linked list and entries are also
+ * indexed by key, so {@link #schedule} and {@link #cancel} are O(1) whatever the number of
+ * pending entries. Deadlines beyond the top level's span are parked in its furthest bucket
+ * and re-placed as it cascades.
+ * <p>
+ * Not thread-safe; callers synchronise.
+ */
+public class HierarchicalTimingWheel<K, V> {
+    
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final Entry<K, V>[][] levels;
+    private final long maxSpanTicks;
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+    
+    // The next tick to be processed
+    private long currentTick;
+    
+    /**
+     * @param tickMillis   resolution; deadlines are rounded up to a whole tick
+     * @param bitsPerLevel log2 of the buckets per level
+     * @param levelCount   number of levels; together they span {@code 2^(bits*levels)} ticks
+     * @param startMillis  the current time
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int bitsPerLevel, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || bitsPerLevel <= 0 || levelCount <= 0 || (long) bitsPerLevel * levelCount >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = bitsPerLevel;
+        this.mask = (1 << bitsPerLevel) - 1;
+        this.levels = new Entry[levelCount][];
+        for (int level = 0; level < levelCount; level++) {
+            Entry<K, V>[] buckets = new Entry[1 << bitsPerLevel];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = Entry.sentinel();
+            }
+            levels[level] = buckets;
+        }
+        this.maxSpanTicks = (1L << (bitsPerLevel * levelCount)) - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+    
+    /**
+     * Schedules {@code value} to expire at {@code deadlineMillis}, replacing any entry for the key.
+     * A deadline that has already passed expires on the next {@link #advanceTo}.
+     */
+    public void schedule(K key, long deadlineMillis, V value) {
+        cancel(key);
+        Entry<K, V> entry = new Entry<>(key, value, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        entries.put(key, entry);
+        place(entry);
+    }
+    
+    /**
+     * @return whether an entry was pending for the key
+     */
+    public boolean cancel(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+    
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Moves time forward to {@code nowMillis} and removes every entry whose deadline has passed.
+     *
+     * @return the expired values in deadline order
+     */
+    public List<V> advanceTo(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<V> expired = new ArrayList<>();
+        while (currentTick <= targetTick) {
+            int index = (int) (currentTick & mask);
+            if (index == 0) {
+                cascade(1);
+            }
+            Entry<K, V> head = levels[0][index];
+            while (head.next != head) {
+                Entry<K, V> entry = head.next;
+                entry.unlink();
+                entries.remove(entry.key);
+                expired.add(entry.value);
+            }
+            currentTick++;
+            if (entries.isEmpty()) {
+                // Level cursors are derived from currentTick, so an empty wheel can skip ahead
+                currentTick = targetTick + 1;
+            }
+        }
+        return expired;
+    }
+    
+    // Re-places the current bucket of each level that just wrapped around
+    private void cascade(int level) {
+        if (level >= levels.length) {
+            return;
+        }
+        int index = (int) ((currentTick >>> (bits * level)) & mask);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+        Entry<K, V> head = levels[level][index];
+        Entry<K, V> entry = head.next;
+        head.next = head;
+        head.prev = head;
+        while (entry != head) {
+            Entry<K, V> next = entry.next;
+            place(entry);
+            entry = next;
+        }
+    }
+    
+    private void place(Entry<K, V> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        long tick = entry.deadlineTick;
+        int level = 0;
+        if (delta < 0) {
+            tick = currentTick;
+        } else {
+            if (delta > maxSpanTicks) {
+                tick = currentTick + maxSpanTicks;
+                delta = maxSpanTicks;
+            }
+            while (level < levels.length - 1 && delta >= 1L << (bits * (level + 1))) {
+                level++;
+            }
+        }
+        Entry<K, V> head = levels[level][(int) ((tick >>> (bits * level)) & mask)];
+        entry.prev = head.prev;
+        entry.next = head;
+        head.prev.next = entry;
+        head.prev = entry;
+    }
+    
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        final long deadlineTick;
+        Entry<K, V> prev;
+        Entry<K, V> next;
+        
+        Entry(K key, V value, long deadlineTick) {
+            this.key = key;
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+        
+        static <K, V> Entry<K, V> sentinel() {
+            Entry<K, V> head = new Entry<>(null, null, 0);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+        
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
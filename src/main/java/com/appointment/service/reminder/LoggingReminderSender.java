@@ -0,0 +1,18 @@
+package com.appointment.service.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in {@link ReminderSender} that only logs; used until a real channel is configured.
+ */
+@Component
+@Slf4j
+public class LoggingReminderSender implements ReminderSender {
+    
+    @Override
+    public void send(Reminder reminder) {
+        log.info("Reminder for {} <{}>: '{}' starts at {}", reminder.getUserName(), reminder.getUserEmail(),
+                reminder.getTitle(), reminder.getStartTime());
+    }
+}
@@ -0,0 +1,17 @@
+package com.appointment.service.reminder;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class Reminder {
+    
+    Long appointmentId;
+    String userEmail;
+    String userName;
+    String title;
+    LocalDateTime startTime;
+}
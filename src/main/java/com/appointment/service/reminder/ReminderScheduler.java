@@ -0,0 +1,222 @@
+package com.appointment.service.reminder;
+
+import com.appointment.entity.Appointment;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Sends a reminder {@code app.reminders.lead-time} before each scheduled appointment.
+ * <p>
+ * Pending reminders live in a {@link HierarchicalTimingWheel}. It is filled from
+ * {@link AppointmentRepository#findUpcomingAppointments} at startup, updated straight away
+ * from this node's committed {@link AppointmentChangedEvent}s, and a periodic refresh
+ * re-applies rows whose {@code updated_at} moved, which covers bookings, moves and
+ * cancellations made on other nodes. The wheel is per node, so reminders are off unless
+ * {@code app.reminders.enabled} is set, and it should be set on exactly one node.
+ * <p>
+ * Each reminder is claimed in the database, with the start time it is for, just before it
+ * is sent. So neither a restart nor an edit that leaves the time alone sends it again, a
+ * change not yet seen here stops it, and moving the appointment earns a new one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.reminders", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReminderScheduler {
+    
+    private static final int PAGE_SIZE = 1000;
+    // Re-reads a little history each pass so commits that landed out of order are not missed
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+    
+    private final AppointmentRepository appointmentRepository;
+    private final ReminderSender reminderSender;
+    private final TransactionTemplate primaryRead;
+    private final Duration leadTime;
+    private final HierarchicalTimingWheel<Long, Reminder> wheel;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    
+    // Start time each upcoming appointment was last reminded for; guarded by the wheel
+    private final Map<Long, LocalDateTime> remindedFor = new HashMap<>();
+    // Appointments changed while the startup load runs; guarded by the wheel
+    private Set<Long> changedDuringLoad;
+    
+    private volatile LocalDateTime refreshedThrough;
+    
+    public ReminderScheduler(AppointmentRepository appointmentRepository,
+                             ReminderSender reminderSender,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.reminders.lead-time:1h}") Duration leadTime,
+                             @Value("${app.reminders.tick-ms:1000}") long tickMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.reminderSender = reminderSender;
+        // Not read-only, so rows are read from the primary: a lagging replica could return a
+        // row whose cancellation has already been applied here
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.leadTime = leadTime;
+        // 64 buckets per level, 5 levels: about 34 years at one-second ticks
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, 6, 5, System.currentTimeMillis());
+        Gauge.builder("reminders.pending", this, ReminderScheduler::pending)
+                .description("Reminders waiting in the timing wheel")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("reminders.sent", "outcome", "success");
+        this.failedCounter = meterRegistry.counter("reminders.sent", "outcome", "error");
+    }
+    
+    /*
+     * Changes that commit while the query runs may or may not be in its result, so their
+     * events win and those rows are skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUpcoming() {
+        LocalDateTime started = LocalDateTime.now();
+        synchronized (wheel) {
+            changedDuringLoad = new HashSet<>();
+        }
+        List<Appointment> upcoming = primaryRead.execute(status -> appointmentRepository.findUpcomingAppointments(started));
+        synchronized (wheel) {
+            for (Appointment appointment : upcoming) {
+                if (!changedDuringLoad.contains(appointment.getId())) {
+                    apply(appointment);
+                }
+            }
+            changedDuringLoad = null;
+        }
+        refreshedThrough = started;
+        log.info("Loaded {} upcoming appointment reminders", upcoming.size());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        boolean active = event.getStatus() == Appointment.AppointmentStatus.SCHEDULED
+                && event.getType() != AppointmentChangedEvent.ChangeType.DELETED;
+        synchronized (wheel) {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.getAppointmentId());
+            }
+            apply(event.getAppointmentId(), active, event.getStartTime(), () -> Reminder.builder()
+                    .appointmentId(event.getAppointmentId())
+                    .userEmail(event.getUserEmail())
+                    .userName(event.getUserName())
+                    .title(event.getTitle())
+                    .startTime(event.getStartTime())
+                    .build());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.reminders.refresh-interval-ms:10000}")
+    public void refresh() {
+        if (refreshedThrough == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = refreshedThrough.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        long afterId = 0;
+        while (true) {
+            LocalDateTime pageSince = since;
+            long after = afterId;
+            List<Appointment> page = primaryRead.execute(status ->
+                    appointmentRepository.findPageWithUserUpdatedAfter(pageSince, after, PageRequest.of(0, PAGE_SIZE)));
+            synchronized (wheel) {
+                page.forEach(this::apply);
+            }
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            Appointment last = page.get(page.size() - 1);
+            since = last.getUpdatedAt();
+            afterId = last.getId();
+        }
+        synchronized (wheel) {
+            remindedFor.values().removeIf(startTime -> startTime.isBefore(started));
+        }
+        refreshedThrough = started;
+    }
+    
+    @Scheduled(fixedRateString = "${app.reminders.tick-ms:1000}")
+    public void fireDue() {
+        List<Reminder> due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(System.currentTimeMillis());
+            due.forEach(reminder -> remindedFor.put(reminder.getAppointmentId(), reminder.getStartTime()));
+        }
+        for (Reminder reminder : due) {
+            try {
+                // Claimed first, which also catches a change the wheel has not caught up with yet;
+                // after a crash a reminder is missed rather than sent twice
+                if (appointmentRepository.claimReminder(reminder.getAppointmentId(), reminder.getStartTime()) == 0) {
+                    continue;
+                }
+                reminderSender.send(reminder);
+                sentCounter.increment();
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.warn("Failed to send reminder for appointment {}: {}", reminder.getAppointmentId(), e.getMessage());
+            }
+        }
+    }
+    
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+    
+    private void apply(Appointment appointment) {
+        if (appointment.getRemindedStartTime() != null) {
+            remindedFor.put(appointment.getId(), appointment.getRemindedStartTime());
+        }
+        apply(appointment.getId(), appointment.getStatus() == Appointment.AppointmentStatus.SCHEDULED,
+                appointment.getStartTime(), () -> reminderFor(appointment));
+    }
+    
+    private void apply(Long appointmentId, boolean active, LocalDateTime startTime, Supplier<Reminder> reminder) {
+        if (!active || !startTime.isAfter(LocalDateTime.now())) {
+            wheel.cancel(appointmentId);
+            remindedFor.remove(appointmentId);
+        } else if (!startTime.equals(remindedFor.get(appointmentId))) {
+            schedule(appointmentId, reminder.get());
+        }
+    }
+    
+    private void schedule(Long appointmentId, Reminder reminder) {
+        // Appointments booked inside the lead time get their reminder straight away
+        long remindAt = reminder.getStartTime().minus(leadTime).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.schedule(appointmentId, remindAt, reminder);
+    }
+    
+    private static Reminder reminderFor(Appointment appointment) {
+        return Reminder.builder()
+                .appointmentId(appointment.getId())
+                .userEmail(appointment.getUser().getEmail())
+                .userName(appointment.getUser().getFullName())
+                .title(appointment.getTitle())
+                .startTime(appointment.getStartTime())
+                .build();
+    }
+}
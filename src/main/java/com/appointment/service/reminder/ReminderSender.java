@@ -0,0 +1,10 @@
+package com.appointment.service.reminder;
+
+/**
+ * Delivers a due reminder (email, SMS, push, ...). Register a {@code @Primary} bean to
+ * replace the logging stand-in. Called from the scheduler thread, one reminder at a time.
+ */
+public interface ReminderSender {
+    
+    void send(Reminder reminder);
+}
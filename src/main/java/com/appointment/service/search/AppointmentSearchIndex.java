@@ -0,0 +1,361 @@
+package com.appointment.service.search;
+
+import com.appointment.entity.Appointment;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over appointments.
+ * <p>
+ * Every indexed version of an appointment gets a fresh ordinal; per-ordinal attributes
+ * (start time, status, user) live in primitive arrays, and each title/description token
+ * and each user email maps to a posting list of ordinals. Ordinals only grow, so posting
+ * lists stay sorted without any work: a search walks the shortest list and probes the
+ * others by binary search, or scans the arrays when there is no text or email to drive
+ * it. Replaced and removed ordinals are tombstoned and compacted away once they
+ * outnumber the live ones.
+ * <p>
+ * Thread-safe: searches share a read lock, changes take the write lock.
+ */
+public class AppointmentSearchIndex {
+    
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_COMPACTION = 10_000;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private long[] appointmentIds = new long[1024];
+    private long[] startTimes = new long[1024];
+    private long[] versions = new long[1024];
+    private byte[] statuses = new byte[1024];
+    private int[] emailIds = new int[1024];
+    private int ordinalCount;
+    private final BitSet live = new BitSet();
+    private int liveCount;
+    
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final Map<String, Integer> emailIdsByEmail = new HashMap<>();
+    private final List<IntList> emailPostings = new ArrayList<>();
+    
+    @Value
+    @Builder
+    public static class Document {
+        long appointmentId;
+        String title;
+        String description;
+        String userEmail;
+        Appointment.AppointmentStatus status;
+        LocalDateTime startTime;
+        // Compared on refresh to skip unchanged rows; 0 when unknown
+        long version;
+    }
+    
+    @Value
+    @Builder
+    public static class Criteria {
+        String text;
+        String userEmail;
+        Appointment.AppointmentStatus status;
+        LocalDateTime from;
+        LocalDateTime to;
+    }
+    
+    @Value
+    public static class Result {
+        long total;
+        // Earliest start first
+        List<Long> appointmentIds;
+    }
+    
+    public void upsert(Document document) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinalsById.get(document.getAppointmentId());
+            if (previous != null) {
+                kill(previous);
+            }
+            int ordinal = ordinalCount++;
+            ensureCapacity(ordinalCount);
+            appointmentIds[ordinal] = document.getAppointmentId();
+            startTimes[ordinal] = epochSecond(document.getStartTime());
+            versions[ordinal] = document.getVersion();
+            statuses[ordinal] = (byte) document.getStatus().ordinal();
+            
+            String email = normaliseEmail(document.getUserEmail());
+            Integer emailId = emailIdsByEmail.get(email);
+            if (emailId == null) {
+                emailId = emailPostings.size();
+                emailIdsByEmail.put(email, emailId);
+                emailPostings.add(new IntList());
+            }
+            emailIds[ordinal] = emailId;
+            emailPostings.get(emailId).add(ordinal);
+            
+            for (String token : tokens(document.getTitle() + " " + (document.getDescription() == null ? "" : document.getDescription()))) {
+                postings.computeIfAbsent(token, t -> new IntList()).add(ordinal);
+            }
+            ordinalsById.put(document.getAppointmentId(), ordinal);
+            live.set(ordinal);
+            liveCount++;
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean remove(long appointmentId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalsById.remove(appointmentId);
+            if (ordinal == null) {
+                return false;
+            }
+            kill(ordinal);
+            compactIfSparse();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * @return the indexed version of the appointment, or -1 when it is not indexed
+     */
+    public long version(long appointmentId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalsById.get(appointmentId);
+            return ordinal == null ? -1 : versions[ordinal];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * @return a snapshot of the indexed appointment ids
+     */
+    public List<Long> appointmentIds() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(ordinalsById.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Finds appointments matching every given criterion: all text tokens (in title or
+     * description), the user email, the status, and a start time within [from, to).
+     */
+    public Result search(Criteria criteria, int limit) {
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>();
+            for (String token : tokens(criteria.getText())) {
+                IntList list = postings.get(token);
+                if (list == null) {
+                    return new Result(0, List.of());
+                }
+                lists.add(list);
+            }
+            if (criteria.getUserEmail() != null && !criteria.getUserEmail().isBlank()) {
+                Integer emailId = emailIdsByEmail.get(normaliseEmail(criteria.getUserEmail()));
+                if (emailId == null) {
+                    return new Result(0, List.of());
+                }
+                lists.add(emailPostings.get(emailId));
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+            
+            int status = criteria.getStatus() == null ? -1 : criteria.getStatus().ordinal();
+            long from = criteria.getFrom() == null ? Long.MIN_VALUE : epochSecond(criteria.getFrom());
+            long to = criteria.getTo() == null ? Long.MAX_VALUE : epochSecond(criteria.getTo());
+            
+            // Keeps the earliest `limit` matches; the head is the latest of them
+            PriorityQueue<Integer> earliest = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingLong((Integer ordinal) -> startTimes[ordinal]).reversed());
+            long total = 0;
+            if (lists.isEmpty()) {
+                for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                    if (matches(ordinal, status, from, to)) {
+                        total++;
+                        offer(earliest, ordinal, limit);
+                    }
+                }
+            } else {
+                IntList driver = lists.get(0);
+                for (int i = 0; i < driver.size(); i++) {
+                    int ordinal = driver.get(i);
+                    if (live.get(ordinal) && matches(ordinal, status, from, to) && inAll(lists, ordinal)) {
+                        total++;
+                        offer(earliest, ordinal, limit);
+                    }
+                }
+            }
+            
+            Long[] ids = new Long[earliest.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = appointmentIds[earliest.poll()];
+            }
+            return new Result(total, Arrays.asList(ids));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private boolean matches(int ordinal, int status, long from, long to) {
+        long start = startTimes[ordinal];
+        return (status < 0 || statuses[ordinal] == status) && start >= from && start < to;
+    }
+    
+    private static boolean inAll(List<IntList> lists, int ordinal) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(ordinal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void offer(PriorityQueue<Integer> earliest, int ordinal, int limit) {
+        if (earliest.size() < limit) {
+            earliest.add(ordinal);
+        } else if (limit > 0 && startTimes[ordinal] < startTimes[earliest.peek()]) {
+            earliest.poll();
+            earliest.add(ordinal);
+        }
+    }
+    
+    private void kill(int ordinal) {
+        if (live.get(ordinal)) {
+            live.clear(ordinal);
+            liveCount--;
+        }
+    }
+    
+    // Drops tombstoned ordinals once they outnumber live ones; renumbering keeps lists sorted
+    private void compactIfSparse() {
+        int dead = ordinalCount - liveCount;
+        if (dead < MIN_COMPACTION || dead < liveCount) {
+            return;
+        }
+        int[] remap = new int[ordinalCount];
+        int next = 0;
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            if (live.get(ordinal)) {
+                remap[ordinal] = next;
+                appointmentIds[next] = appointmentIds[ordinal];
+                startTimes[next] = startTimes[ordinal];
+                versions[next] = versions[ordinal];
+                statuses[next] = statuses[ordinal];
+                emailIds[next] = emailIds[ordinal];
+                next++;
+            } else {
+                remap[ordinal] = -1;
+            }
+        }
+        ordinalCount = next;
+        live.clear();
+        live.set(0, next);
+        postings.values().removeIf(list -> list.retainRemapped(remap) == 0);
+        emailPostings.forEach(list -> list.retainRemapped(remap));
+        ordinalsById.replaceAll((id, ordinal) -> remap[ordinal]);
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity <= appointmentIds.length) {
+            return;
+        }
+        int grown = Math.max(capacity, appointmentIds.length * 2);
+        appointmentIds = Arrays.copyOf(appointmentIds, grown);
+        startTimes = Arrays.copyOf(startTimes, grown);
+        versions = Arrays.copyOf(versions, grown);
+        statuses = Arrays.copyOf(statuses, grown);
+        emailIds = Arrays.copyOf(emailIds, grown);
+    }
+    
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    private static String normaliseEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /** Growable sorted list of ordinals. */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int get(int index) {
+            return values[index];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+        
+        int retainRemapped(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int mapped = remap[values[i]];
+                if (mapped >= 0) {
+                    values[kept++] = mapped;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.appointment.service.search;
+
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.AppointmentSearchResponse;
+import com.appointment.entity.Appointment;
+import com.appointment.event.AppointmentChangedEvent;
+import com.appointment.event.AppointmentsArchivedEvent;
+import com.appointment.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Admin search backed by an {@link AppointmentSearchIndex} on each node.
+ * <p>
+ * The index is built at startup and updated straight away from this node's committed
+ * {@link AppointmentChangedEvent}s. A periodic refresh picks up rows whose
+ * {@code updated_at} moved since the last pass, which covers other nodes and the bulk
+ * jobs. Rows this node archives are dropped once their batch commits; rows deleted or
+ * archived elsewhere are dropped by a slower reconcile pass, or sooner when a search fails
+ * to load them.
+ */
+@Service
+@Slf4j
+public class AppointmentSearchService {
+    
+    public static final int MAX_LIMIT = 200;
+    
+    private static final int PAGE_SIZE = 1000;
+    // Re-reads a little history each pass so commits that landed out of order are not missed
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+    
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate primaryRead;
+    private final AppointmentSearchIndex index = new AppointmentSearchIndex();
+    
+    private volatile LocalDateTime refreshedThrough;
+    
+    public AppointmentSearchService(AppointmentRepository appointmentRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.appointmentRepository = appointmentRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Not read-only: a replica that is behind would report rows the index already has as missing
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        Gauge.builder("appointment.search.indexed", index, AppointmentSearchIndex::size)
+                .description("Appointments in the search index")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        LocalDateTime started = LocalDateTime.now();
+        long afterId = 0;
+        int loaded = 0;
+        while (true) {
+            long after = afterId;
+            List<Appointment> page = readTransaction.execute(status ->
+                    appointmentRepository.findPageWithUserAfterId(after, PageRequest.of(0, PAGE_SIZE)));
+            page.forEach(appointment -> index.upsert(document(appointment)));
+            loaded += page.size();
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        refreshedThrough = started;
+        log.info("Indexed {} appointments for search", loaded);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:10000}")
+    public void refresh() {
+        if (refreshedThrough == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = refreshedThrough.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        long afterId = 0;
+        while (true) {
+            LocalDateTime pageSince = since;
+            long after = afterId;
+            List<Appointment> page = readTransaction.execute(status ->
+                    appointmentRepository.findPageWithUserUpdatedAfter(pageSince, after, PageRequest.of(0, PAGE_SIZE)));
+            for (Appointment appointment : page) {
+                if (index.version(appointment.getId()) != version(appointment)) {
+                    index.upsert(document(appointment));
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            Appointment last = page.get(page.size() - 1);
+            since = last.getUpdatedAt();
+            afterId = last.getId();
+        }
+        refreshedThrough = started;
+    }
+    
+    /**
+     * Drops indexed appointments whose rows no longer exist. Deletes and archive runs on other
+     * nodes leave no {@code updated_at} for {@link #refresh} to find.
+     */
+    @Scheduled(fixedDelayString = "${app.search.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.search.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        List<Long> ids = index.appointmentIds();
+        int removed = 0;
+        for (int from = 0; from < ids.size(); from += PAGE_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + PAGE_SIZE, ids.size()));
+            Set<Long> existing = new HashSet<>(primaryRead.execute(status -> appointmentRepository.findExistingIds(chunk)));
+            for (Long id : chunk) {
+                if (!existing.contains(id) && index.remove(id)) {
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} deleted appointments from the search index", removed);
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentsArchived(AppointmentsArchivedEvent event) {
+        event.getAppointmentIds().forEach(index::remove);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.getType() == AppointmentChangedEvent.ChangeType.DELETED) {
+            index.remove(event.getAppointmentId());
+            return;
+        }
+        index.upsert(AppointmentSearchIndex.Document.builder()
+                .appointmentId(event.getAppointmentId())
+                .title(event.getTitle())
+                .description(event.getDescription())
+                .userEmail(event.getUserEmail())
+                .status(event.getStatus())
+                .startTime(event.getStartTime())
+                .build());
+    }
+    
+    @Transactional(readOnly = true)
+    public AppointmentSearchResponse search(AppointmentSearchIndex.Criteria criteria, int limit) {
+        AppointmentSearchIndex.Result result = index.search(criteria, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        if (result.getAppointmentIds().isEmpty()) {
+            return new AppointmentSearchResponse(result.getTotal(), List.of());
+        }
+        Map<Long, Appointment> loaded = appointmentRepository.findAllWithUserByIdIn(result.getAppointmentIds()).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+        
+        List<AppointmentResponse> appointments = new ArrayList<>(loaded.size());
+        for (Long id : result.getAppointmentIds()) {
+            Appointment appointment = loaded.get(id);
+            if (appointment == null) {
+                // Deleted or archived since it was indexed
+                index.remove(id);
+            } else {
+                appointments.add(AppointmentResponse.fromEntity(appointment));
+            }
+        }
+        return AppointmentSearchResponse.builder()
+                .total(result.getTotal() - (result.getAppointmentIds().size() - appointments.size()))
+                .appointments(appointments)
+                .build();
+    }
+    
+    private static AppointmentSearchIndex.Document document(Appointment appointment) {
+        return AppointmentSearchIndex.Document.builder()
+                .appointmentId(appointment.getId())
+                .title(appointment.getTitle())
+                .description(appointment.getDescription())
+                .userEmail(appointment.getUser().getEmail())
+                .status(appointment.getStatus())
+                .startTime(appointment.getStartTime())
+                .version(version(appointment))
+                .build();
+    }
+    
+    private static long version(Appointment appointment) {
+        LocalDateTime updatedAt = appointment.getUpdatedAt();
+        return updatedAt == null ? 0 : updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,9 @@
+package com.appointment.service.token;
+
+import com.appointment.entity.User;
+
+/**
+ * An access token and the refresh token issued with it, for the user they were issued to.
+ */
+public record IssuedTokens(User user, String accessToken, String refreshToken) {
+}
@@ -0,0 +1,165 @@
+package com.appointment.service.token;
+
+import com.appointment.entity.RefreshToken;
+import com.appointment.entity.User;
+import com.appointment.exception.InvalidTokenException;
+import com.appointment.repository.RefreshTokenRepository;
+import com.appointment.security.JwtService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Issues access tokens together with rotating refresh tokens, and revokes them.
+ * <p>
+ * Access tokens are short-lived and checked without the database; refresh tokens live
+ * server-side and are exchanged for a new pair on every refresh. Revoking a refresh token
+ * family also revokes the access tokens issued with it, through {@link TokenRevocationService},
+ * so a signed-out or blocked user loses access at once rather than when the token expires.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationService revocationService;
+    private final JwtService jwtService;
+    private final long refreshExpiration;
+    private final Counter reuseCounter;
+    
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenRevocationService revocationService,
+                               JwtService jwtService,
+                               @Value("${jwt.refresh-expiration}") long refreshExpiration,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocationService = revocationService;
+        this.jwtService = jwtService;
+        this.refreshExpiration = refreshExpiration;
+        this.reuseCounter = meterRegistry.counter("tokens.refresh.reused");
+    }
+    
+    public long getRefreshExpirationTime() {
+        return refreshExpiration;
+    }
+    
+    /**
+     * Starts a new refresh token family for a user who just signed in.
+     */
+    @Transactional
+    public IssuedTokens issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+    
+    /**
+     * Exchanges a refresh token for a new access and refresh token. A token that was already
+     * exchanged revokes its whole family, since either the client or an attacker holds a copy.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public IssuedTokens rotate(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.lockByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+            throw new InvalidTokenException("Refresh token expired or revoked");
+        }
+        if (current.getUsedAt() != null) {
+            reuseCounter.increment();
+            log.warn("Refresh token reused for user {}; revoking its family", current.getUser().getId());
+            revokeTokens(refreshTokenRepository.findActiveByFamilyId(current.getFamilyId()));
+            throw new InvalidTokenException("Refresh token already used");
+        }
+        current.setUsedAt(now);
+        return issue(current.getUser(), current.getFamilyId());
+    }
+    
+    /**
+     * Signs out the session the refresh token belongs to. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.lockByTokenHash(hash(refreshToken))
+                .ifPresent(token -> revokeTokens(refreshTokenRepository.findActiveByFamilyId(token.getFamilyId())));
+    }
+    
+    /**
+     * Signs the user out everywhere. Returns the number of refresh tokens revoked.
+     */
+    @Transactional
+    public int revokeAllForUser(Long userId) {
+        List<RefreshToken> tokens = refreshTokenRepository.findActiveByUserId(userId, LocalDateTime.now());
+        revokeTokens(tokens);
+        return tokens.size();
+    }
+    
+    @Scheduled(cron = "${app.tokens.purge-cron:0 15 4 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+    
+    private IssuedTokens issue(User user, String familyId) {
+        String jti = UUID.randomUUID().toString();
+        String accessToken = jwtService.generateAccessToken(jti, user.getEmail(), user.getId(), user.getRole().name());
+        byte[] random = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(random);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(refreshToken))
+                .familyId(familyId)
+                .accessJti(jti)
+                .createdAt(now)
+                .expiresAt(now.plus(Duration.ofMillis(refreshExpiration)))
+                .build());
+        return new IssuedTokens(user, accessToken, refreshToken);
+    }
+    
+    private void revokeTokens(List<RefreshToken> tokens) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, LocalDateTime> liveAccessTokens = new HashMap<>();
+        for (RefreshToken token : tokens) {
+            token.setRevokedAt(now);
+            // Access tokens issued long enough ago have expired and need no revocation entry
+            LocalDateTime accessExpiresAt = token.getCreatedAt().plus(Duration.ofMillis(jwtService.getExpirationTime()));
+            if (accessExpiresAt.isAfter(now)) {
+                liveAccessTokens.put(token.getAccessJti(), accessExpiresAt);
+            }
+        }
+        revocationService.revoke(liveAccessTokens);
+    }
+    
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
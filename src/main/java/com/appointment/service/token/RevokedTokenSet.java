@@ -0,0 +1,200 @@
+package com.appointment.service.token;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An immutable set of revoked access-token ids, each a UUID held as two longs.
+ * <p>
+ * A lookup parses the id straight from its characters, probes a Bloom filter and, only when
+ * every probed bit is set, binary-searches the sorted ids. Nothing is allocated and nothing is
+ * locked, so the check costs a few cache lines on every authenticated request; almost all
+ * tokens are not revoked and stop at the filter. The filter is sized for about a 1% false
+ * positive rate, and a false positive only costs the binary search.
+ * <p>
+ * Changes produce a new set ({@link #with}); {@link TokenRevocationService} swaps them in.
+ */
+public final class RevokedTokenSet {
+
+    static final RevokedTokenSet EMPTY = new RevokedTokenSet(new Entry[0]);
+
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ENTRY = 10;
+
+    private final long[] high;
+    private final long[] low;
+    private final long[] expiresAtMillis;
+    private final long[] bloom;
+    private final int bloomMask;
+
+    private RevokedTokenSet(Entry[] sorted) {
+        int size = sorted.length;
+        high = new long[size];
+        low = new long[size];
+        expiresAtMillis = new long[size];
+        int bits = Math.max(64, Integer.highestOneBit(Math.max(1, size * BITS_PER_ENTRY - 1)) << 1);
+        bloom = new long[bits >>> 6];
+        bloomMask = bits - 1;
+        for (int i = 0; i < size; i++) {
+            high[i] = sorted[i].high();
+            low[i] = sorted[i].low();
+            expiresAtMillis[i] = sorted[i].expiresAtMillis();
+            long h1 = hash1(high[i], low[i]);
+            long h2 = hash2(high[i], low[i]);
+            for (int k = 0; k < HASHES; k++) {
+                int bit = (int) (h1 + k * h2) & bloomMask;
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * Whether the token id is in the set. Ids that are not UUIDs are reported as revoked;
+     * every access token this application issues carries a random UUID.
+     */
+    public boolean contains(CharSequence jti) {
+        if (jti == null || jti.length() != 36) {
+            return true;
+        }
+        long hi = 0;
+        long lo = 0;
+        int digits = 0;
+        for (int i = 0; i < 36; i++) {
+            char c = jti.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return true;
+                }
+                continue;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                return true;
+            }
+            if (digits++ < 16) {
+                hi = hi << 4 | digit;
+            } else {
+                lo = lo << 4 | digit;
+            }
+        }
+        return contains(hi, lo);
+    }
+
+    boolean contains(long hi, long lo) {
+        long h1 = hash1(hi, lo);
+        long h2 = hash2(hi, lo);
+        for (int k = 0; k < HASHES; k++) {
+            int bit = (int) (h1 + k * h2) & bloomMask;
+            if ((bloom[bit >>> 6] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return indexOf(hi, lo) >= 0;
+    }
+
+    public int size() {
+        return high.length;
+    }
+
+    /**
+     * Returns a set holding these entries plus {@code added}, minus everything that expired
+     * at or before {@code nowMillis}. Returns this set when nothing would change.
+     */
+    RevokedTokenSet with(List<Entry> added, long nowMillis) {
+        boolean changed = false;
+        for (Entry entry : added) {
+            if (entry.expiresAtMillis() > nowMillis && indexOf(entry.high(), entry.low()) < 0) {
+                changed = true;
+                break;
+            }
+        }
+        if (!changed) {
+            for (long expiresAt : expiresAtMillis) {
+                if (expiresAt <= nowMillis) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+        Entry[] merged = new Entry[high.length + added.size()];
+        int size = 0;
+        for (int i = 0; i < high.length; i++) {
+            if (expiresAtMillis[i] > nowMillis) {
+                merged[size++] = new Entry(high[i], low[i], expiresAtMillis[i]);
+            }
+        }
+        for (Entry entry : added) {
+            if (entry.expiresAtMillis() > nowMillis) {
+                merged[size++] = entry;
+            }
+        }
+        Entry[] sorted = Arrays.copyOf(merged, size);
+        Arrays.sort(sorted, Entry.ORDER);
+        // The same id may arrive from an event and again from the database
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || Entry.ORDER.compare(sorted[distinct - 1], sorted[i]) != 0) {
+                sorted[distinct++] = sorted[i];
+            } else if (sorted[i].expiresAtMillis() > sorted[distinct - 1].expiresAtMillis()) {
+                sorted[distinct - 1] = sorted[i];
+            }
+        }
+        return new RevokedTokenSet(Arrays.copyOf(sorted, distinct));
+    }
+
+    private int indexOf(long hi, long lo) {
+        int from = 0;
+        int to = high.length - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            int cmp = Long.compare(high[mid], hi);
+            if (cmp == 0) {
+                cmp = Long.compare(low[mid], lo);
+            }
+            if (cmp < 0) {
+                from = mid + 1;
+            } else if (cmp > 0) {
+                to = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static long hash1(long hi, long lo) {
+        return mix(hi ^ Long.rotateLeft(lo, 32));
+    }
+
+    private static long hash2(long hi, long lo) {
+        // Odd, so successive probes cycle through every bit of the power-of-two filter
+        return mix(lo + 0x9E3779B97F4A7C15L * hi) | 1;
+    }
+
+    // The SplitMix64 finaliser; random UUIDs are already uniform, but ids need not be
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A revoked token id and the time its token expires anyway, after which it can be dropped.
+     */
+    record Entry(long high, long low, long expiresAtMillis) {
+
+        static final Comparator<Entry> ORDER = Comparator
+                .comparingLong(Entry::high)
+                .thenComparingLong(Entry::low);
+
+        static Entry of(String jti, long expiresAtMillis) {
+            UUID uuid = UUID.fromString(jti);
+            return new Entry(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), expiresAtMillis);
+        }
+    }
+}
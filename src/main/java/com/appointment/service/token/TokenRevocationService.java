@@ -0,0 +1,136 @@
+package com.appointment.service.token;
+
+import com.appointment.entity.RevokedToken;
+import com.appointment.event.AccessTokensRevokedEvent;
+import com.appointment.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps this node's {@link RevokedTokenSet} in step with {@code revoked_tokens}.
+ * <p>
+ * The set is loaded before the web server starts accepting requests, updated straight away
+ * from this node's committed {@link AccessTokensRevokedEvent}s and polled for rows written by
+ * other nodes. {@link #isRevoked} only reads a volatile reference, so authentication never
+ * waits for a refresh and never touches the database. A revocation made on another node takes
+ * effect here within one sync interval.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService implements SmartInitializingSingleton {
+    
+    // Re-reads a little history each pass so commits that landed out of order are not missed
+    private static final long SYNC_OVERLAP_SECONDS = 30;
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readTransaction;
+    
+    private volatile RevokedTokenSet revoked = RevokedTokenSet.EMPTY;
+    private volatile LocalDateTime syncedThrough;
+    
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.eventPublisher = eventPublisher;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        Gauge.builder("tokens.revoked", this, service -> service.revoked.size())
+                .description("Revoked, unexpired access tokens held in memory")
+                .register(meterRegistry);
+    }
+    
+    public boolean isRevoked(CharSequence jti) {
+        return revoked.contains(jti);
+    }
+    
+    /**
+     * Records the access tokens as revoked. Must run inside the caller's transaction, so the
+     * rows commit or roll back with whatever caused the revocation.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revoke(Map<String, LocalDateTime> expiresAtByJti) {
+        if (expiresAtByJti.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.saveAll(expiresAtByJti.entrySet().stream()
+                .map(entry -> RevokedToken.builder()
+                        .jti(entry.getKey())
+                        .expiresAt(entry.getValue())
+                        .revokedAt(now)
+                        .build())
+                .toList());
+        eventPublisher.publishEvent(new AccessTokensRevokedEvent(Map.copyOf(expiresAtByJti)));
+    }
+    
+    // Runs once every singleton exists, before the web server is started
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime started = LocalDateTime.now();
+        List<RevokedToken> rows = readTransaction.execute(status -> revokedTokenRepository.findUnexpired(started));
+        apply(rows);
+        syncedThrough = started;
+        log.info("Loaded {} revoked access tokens", revoked.size());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.tokens.revocation-sync-ms:5000}")
+    public void sync() {
+        if (syncedThrough == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = syncedThrough.minusSeconds(SYNC_OVERLAP_SECONDS);
+        apply(readTransaction.execute(status -> revokedTokenRepository.findRevokedAfter(since, started)));
+        syncedThrough = started;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRevoked(AccessTokensRevokedEvent event) {
+        update(event.getExpiresAtByJti().entrySet().stream()
+                .map(entry -> RevokedTokenSet.Entry.of(entry.getKey(), toMillis(entry.getValue())))
+                .toList());
+    }
+    
+    @Scheduled(cron = "${app.tokens.purge-cron:0 15 4 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired revoked-token rows", purged);
+        }
+    }
+    
+    private void apply(List<RevokedToken> rows) {
+        update(rows.stream()
+                .map(row -> RevokedTokenSet.Entry.of(row.getJti(), toMillis(row.getExpiresAt())))
+                .toList());
+    }
+    
+    // Writers are serialised; readers keep using the previous set until the new one is published
+    private synchronized void update(List<RevokedTokenSet.Entry> added) {
+        revoked = revoked.with(added, System.currentTimeMillis());
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,131 @@
+package com.appointment.benchmark;
+
+import com.appointment.dto.ApiResponse;
+import com.appointment.dto.AppointmentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Payload size and serialisation time of a typical list response in each supported format,
+ * with and without the Blackbird module.
+ * <p>
+ * Excluded from the default build; run it with {@code mvn -Pbenchmark test}. The list size and
+ * iteration counts can be tuned with {@code -Dbenchmark.appointments},
+ * {@code -Dbenchmark.warmupIterations} and {@code -Dbenchmark.iterations}.
+ */
+@Tag("benchmark")
+@Slf4j
+class ResponseSerializationBenchmarkTest {
+
+    private static final int APPOINTMENTS = Integer.getInteger("benchmark.appointments", 500);
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("benchmark.warmupIterations", 2000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5000);
+
+    @Test
+    void listResponse() throws Exception {
+        ApiResponse<List<AppointmentResponse>> payload = ApiResponse.success(appointments());
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json (before)", configure(JsonMapper.builder().build(), false));
+        mappers.put("json + blackbird", configure(JsonMapper.builder().build(), true));
+        mappers.put("cbor + blackbird", configure(CBORMapper.builder().build(), true));
+        mappers.put("smile + blackbird", configure(SmileMapper.builder(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()).build(), true));
+
+        StringBuilder report = new StringBuilder(String.format("%nSerialisation of %d appointments, %d iterations%n%-20s %10s %10s %12s%n",
+                APPOINTMENTS, ITERATIONS, "format", "bytes", "gzipped", "us/op"));
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] bytes = mapper.writeValueAsBytes(payload);
+            sizes.put(entry.getKey(), bytes.length);
+            double micros = measure(mapper, payload);
+            report.append(String.format("%-20s %10d %10d %12.1f%n", entry.getKey(), bytes.length, gzip(bytes).length, micros));
+        }
+        log.info(report.toString());
+
+        int json = sizes.get("json (before)");
+        assertTrue(sizes.get("cbor + blackbird") < json, "CBOR should be smaller than JSON");
+        assertTrue(sizes.get("smile + blackbird") < json, "Smile should be smaller than JSON");
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper, boolean blackbird) {
+        // Matches the application's mapper: java.time support with ISO dates, no field filtering
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    private static double measure(ObjectMapper mapper, Object payload) throws IOException {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(payload).length;
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += mapper.writeValueAsBytes(payload).length;
+        }
+        double micros = (System.nanoTime() - started) / 1_000.0 / ITERATIONS;
+        assertTrue(sink > 0);
+        return micros;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<AppointmentResponse> appointments() {
+        // A page of one resource's calendar shared by a handful of users, as the admin list returns
+        LocalDateTime base = LocalDate.now().plusDays(1).atTime(8, 0);
+        List<AppointmentResponse> appointments = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            int user = i % 20;
+            LocalDateTime start = base.plusHours(i);
+            appointments.add(AppointmentResponse.builder()
+                    .id(10_000L + i)
+                    .title("Consultation " + i)
+                    .description(i % 3 == 0 ? null : "Follow-up visit")
+                    .startTime(start)
+                    .endTime(start.plusHours(1))
+                    .status(i % 10 == 0 ? "CANCELLED" : "SCHEDULED")
+                    .resourceId(1L + i % 4)
+                    .userName("Benchmark User" + user)
+                    .userEmail("benchmark.user" + user + "@example.com")
+                    .createdAt(base.minusDays(14).plusMinutes(i))
+                    .build());
+        }
+        return appointments;
+    }
+}
@@ -0,0 +1,74 @@
+package com.appointment.benchmark;
+
+import com.appointment.AppointmentApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the whole application (Tomcat on a random port, Hibernate against a fresh in-memory
+ * database, data initialisation) several times in one JVM and reports the time until it is
+ * ready. The first boot is the cold start a new instance pays; later boots show the cost of
+ * Spring itself once classes are loaded and JIT-compiled.
+ * <p>
+ * Excluded from the default build; run it with {@code mvn -Pbenchmark test}. Fails when the cold
+ * start exceeds {@code -Dstartup.maxColdMillis} (default 30000), so a CI job can track it.
+ */
+@Tag("benchmark")
+@Slf4j
+class StartupTimeTest {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final long MAX_COLD_MILLIS = Long.getLong("startup.maxColdMillis", 30_000);
+
+    private long firstReadyUptime;
+
+    @Test
+    void timeToReady() {
+        List<Duration> runs = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            runs.add(boot(i));
+        }
+
+        Duration cold = runs.get(0);
+        List<Duration> warm = runs.subList(1, runs.size()).stream().sorted().toList();
+        Duration warmMedian = warm.isEmpty() ? cold : warm.get(warm.size() / 2);
+        log.info(String.format("%nStartup: cold %d ms (JVM uptime at ready %d ms), warm median %d ms over %d runs",
+                cold.toMillis(), firstReadyUptime, warmMedian.toMillis(), warm.size()));
+
+        assertTrue(cold.toMillis() <= MAX_COLD_MILLIS,
+                "cold start took " + cold.toMillis() + " ms, budget is " + MAX_COLD_MILLIS + " ms");
+    }
+
+    private Duration boot(int run) {
+        AtomicReference<Duration> timeTaken = new AtomicReference<>();
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(AppointmentApplication.class)
+                .profiles("test")
+                .listeners(event -> {
+                    if (event instanceof ApplicationReadyEvent ready) {
+                        timeTaken.set(ready.getTimeTaken());
+                        if (run == 0) {
+                            firstReadyUptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                        }
+                    }
+                });
+        // A fresh database per run, so every boot creates the schema and seeds data
+        try (ConfigurableApplicationContext ignored = builder.run(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup" + run + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")) {
+            return timeTaken.get();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.appointment.config;
+
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.appointment.support.QueryBudget.assertWithinBudget;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+    private static final String EMAIL = "idempotent@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime start = LocalDate.now().plusYears(6).atTime(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by every test context, but each context recreates the schema
+        entityManagerFactory.getCache().evictAll();
+        appointmentRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("encoded")
+                .firstName("Idempotent")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void retriedBooking_IsReplayedWithoutTouchingTheDatabase() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = booking(start);
+        String first = book(key, body)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String replayed = assertWithinBudget(0, () -> book(key, body)
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals(first, replayed);
+        assertEquals(1, appointmentRepository.count());
+    }
+
+    @Test
+    void reusedKeyWithDifferentBody_IsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        book(key, booking(start)).andExpect(status().isOk());
+
+        book(key, booking(start.plusHours(2)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.success").value(false));
+        assertEquals(1, appointmentRepository.count());
+    }
+
+    @Test
+    void failedRequest_IsNotStoredSoTheRetryRunsAgain() throws Exception {
+        String key = UUID.randomUUID().toString();
+        book(UUID.randomUUID().toString(), booking(start)).andExpect(status().isOk());
+
+        // Conflicts with the booking above; the key is released rather than remembered
+        book(key, booking(start)).andExpect(status().isConflict());
+        appointmentRepository.deleteAll();
+
+        book(key, booking(start))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    private ResultActions book(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/appointments")
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .with(user(EMAIL).roles("USER")));
+    }
+
+    private static String booking(LocalDateTime startTime) {
+        return """
+                {"title":"Retried","startTime":"%s","endTime":"%s"}
+                """.formatted(startTime, startTime.plusHours(1));
+    }
+}
@@ -0,0 +1,131 @@
+package com.appointment.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between two embedded H2 databases; each holds a marker row naming itself.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate replicaAdmin;
+
+    private ReadReplicaRoutingDataSource router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        replicaAdmin = new JdbcTemplate(replica);
+        replicaAdmin.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replicaAdmin.update("INSERT INTO replica_lag VALUES (0)");
+
+        router = new ReadReplicaRoutingDataSource(primary, Map.of("replica-1", replica),
+                Duration.ofSeconds(5), Duration.ofSeconds(10), "SELECT seconds FROM replica_lag");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        replicaAdmin.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransaction_GoesToReplica() {
+        router.checkReplicas();
+
+        assertEquals("replica", readOnly.execute(status -> marker()));
+        assertEquals("primary", readWrite.execute(status -> marker()));
+    }
+
+    @Test
+    void replicaIsNotUsedBeforeFirstLagCheck() {
+        assertEquals("primary", readOnly.execute(status -> marker()));
+    }
+
+    @Test
+    void laggingReplica_FallsBackToPrimary() {
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 30");
+        router.checkReplicas();
+
+        assertEquals("primary", readOnly.execute(status -> marker()));
+
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 1");
+        router.checkReplicas();
+
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+
+    @Test
+    void unreachableReplica_FallsBackToPrimary() {
+        JdbcDataSource broken = new JdbcDataSource();
+        broken.setURL("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+        router = new ReadReplicaRoutingDataSource(primary, Map.of("replica-1", broken),
+                Duration.ofSeconds(5), Duration.ofSeconds(10), "SELECT 0");
+        router.checkReplicas();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        assertEquals("primary", readOnly.execute(status -> marker()));
+    }
+
+    @Test
+    void userWhoJustWrote_ReadsTheirOwnWrites() {
+        router.checkReplicas();
+        authenticate("alice@example.com");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET touched = TRUE"));
+
+        assertEquals("primary", readOnly.execute(status -> marker()));
+
+        authenticate("bob@example.com");
+        assertEquals("replica", readOnly.execute(status -> marker()));
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20), touched BOOLEAN DEFAULT FALSE)");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,115 @@
+package com.appointment.config;
+
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The "replica" is the test database seen through a login that may only read, so a write
+ * routed to it fails just as it would on a PostgreSQL standby.
+ */
+@SpringBootTest(properties = {
+        // Settings in the URL need admin rights; the database already has them from the primary pool
+        "app.datasource.replicas[0].url=jdbc:h2:mem:testdb",
+        "app.datasource.replicas[0].username=reader",
+        "app.datasource.replicas[0].password=reader",
+        "app.datasource.lag-query=SELECT 0",
+        "app.datasource.read-your-writes-window=0s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingPerTransactionTest {
+
+    private static final String EMAIL = "replica-routing@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource router;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE USER IF NOT EXISTS reader PASSWORD 'reader'");
+        jdbcTemplate.execute("GRANT SELECT ON SCHEMA public TO reader");
+        router.checkReplicas();
+
+        appointmentRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("encoded")
+                .firstName("Replica")
+                .lastName("Routing")
+                .role(User.UserRole.USER)
+                .build()));
+        // So the controller's user lookup is a read-only transaction that reaches the replica
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("REVOKE SELECT ON SCHEMA public FROM reader");
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertEquals("reader", readOnly.execute(status ->
+                jdbcTemplate.queryForObject("SELECT LOWER(CURRENT_USER)", String.class)));
+    }
+
+    @Test
+    void writeAfterReadOnlyLookupInOneRequest_GoesToThePrimary() throws Exception {
+        LocalDateTime start = LocalDate.now().plusYears(8).atTime(10, 0);
+
+        mockMvc.perform(post("/api/appointments")
+                        .with(user(EMAIL).roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Routed\",\"startTime\":\"" + start + "\",\"endTime\":\"" + start.plusHours(1) + "\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, appointmentRepository.count());
+    }
+}
@@ -0,0 +1,142 @@
+package com.appointment.controller;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.ResourceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.appointment.support.QueryBudget.assertWithinBudget;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AppointmentControllerQueryBudgetTest {
+
+    private static final int USERS = 5;
+    private static final int APPOINTMENTS_PER_USER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ResourceService resourceService;
+
+    private final LocalDate day = LocalDate.now().plusDays(7);
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+
+        List<Appointment> appointments = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            String email = "budget" + u + "@example.com";
+            User user = userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder()
+                    .email(email)
+                    .password("encoded")
+                    .firstName("Budget")
+                    .lastName("User")
+                    .role(User.UserRole.USER)
+                    .build()));
+            for (int i = 0; i < APPOINTMENTS_PER_USER; i++) {
+                LocalDateTime start = day.atTime(8, 0).plusHours(u * APPOINTMENTS_PER_USER + i);
+                appointments.add(Appointment.builder()
+                        .user(user)
+                        .title("Appointment " + u + "-" + i)
+                        .startTime(start)
+                        .endTime(start.plusHours(1))
+                        .status(Appointment.AppointmentStatus.SCHEDULED)
+                        .build());
+            }
+        }
+        appointmentRepository.saveAll(appointments);
+    }
+
+    @Test
+    void getMyAppointments_StaysWithinBudget() throws Exception {
+        assertWithinBudget(2, () -> mockMvc.perform(get("/api/appointments")
+                        .with(user("budget0@example.com").roles("USER")))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getMyAppointments_ResolvesUserFromSecondLevelCache() throws Exception {
+        mockMvc.perform(get("/api/appointments").with(user("budget1@example.com").roles("USER")))
+                .andExpect(status().isOk());
+
+        assertWithinBudget(1, () -> mockMvc.perform(get("/api/appointments")
+                        .with(user("budget1@example.com").roles("USER")))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getTimeSlots_StaysWithinBudget() throws Exception {
+        // The default resource is looked up again once its TTL runs out, which a long suite can reach
+        resourceService.resolveResourceId(null);
+
+        assertWithinBudget(1, () -> mockMvc.perform(get("/api/appointments/slots/" + day)
+                        .with(user("budget0@example.com").roles("USER")))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getAllAppointments_DoesNotLoadUsersOneByOne() throws Exception {
+        assertWithinBudget(1, () -> mockMvc.perform(get("/api/admin/appointments")
+                        .with(user("admin@appointment.com").roles("ADMIN")))
+                .andExpect(status().isOk()));
+    }
+    
+    @Test
+    void getAllAppointments_WithSummaryFields_SelectsOnlyThoseColumns() throws Exception {
+        assertWithinBudget(1, () -> mockMvc.perform(get("/api/admin/appointments")
+                        .param("fields", "id,title,startTime,userName")
+                        .with(user("admin@appointment.com").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].title").exists())
+                .andExpect(jsonPath("$.data[0].userName").value("Budget User"))
+                .andExpect(jsonPath("$.data[0].endTime").doesNotExist())
+                .andExpect(jsonPath("$.data[0].description").doesNotExist())
+                .andExpect(jsonPath("$.success").value(true)));
+    }
+    
+    @Test
+    void getMyAppointments_WithFullFields_FiltersTheFullResponse() throws Exception {
+        mockMvc.perform(get("/api/appointments")
+                        .param("fields", "id,createdAt")
+                        .with(user("budget0@example.com").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(APPOINTMENTS_PER_USER))
+                .andExpect(jsonPath("$.data[0].createdAt").exists())
+                .andExpect(jsonPath("$.data[0].title").doesNotExist());
+    }
+    
+    @Test
+    void getMyAppointments_RejectsUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/appointments")
+                        .param("fields", "id,password")
+                        .with(user("budget0@example.com").roles("USER")))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,186 @@
+package com.appointment.controller;
+
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+import static com.appointment.support.QueryBudget.assertWithinBudget;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+    private static final String EMAIL = "tokens@example.com";
+    private static final String PASSWORD = "secret123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by every test context, but each context recreates the schema
+        entityManagerFactory.getCache().evictAll();
+        user = userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password(passwordEncoder.encode(PASSWORD))
+                .firstName("Token")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void refresh_RotatesAndRevokesTheFamilyWhenATokenIsReused() throws Exception {
+        JsonNode login = login();
+        JsonNode refreshed = body(refresh(login.path("refreshToken").asText()).andExpect(status().isOk()));
+        String accessToken = refreshed.path("token").asText();
+        appointments(accessToken).andExpect(status().isOk());
+
+        // The first refresh token was already exchanged; presenting it again looks like theft
+        refresh(login.path("refreshToken").asText()).andExpect(status().isUnauthorized());
+
+        appointments(accessToken).andExpect(status().isUnauthorized());
+        refresh(refreshed.path("refreshToken").asText()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout_RevokesTheAccessTokenImmediately() throws Exception {
+        JsonNode login = login();
+        String accessToken = login.path("token").asText();
+        appointments(accessToken).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + login.path("refreshToken").asText() + "\"}"))
+                .andExpect(status().isOk());
+
+        appointments(accessToken).andExpect(status().isUnauthorized());
+        refresh(login.path("refreshToken").asText()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void accessToken_IsCheckedWithoutTheDatabase() throws Exception {
+        appointmentRepository.deleteAll();
+        String accessToken = login().path("token").asText();
+        String key = UUID.randomUUID().toString();
+        LocalDateTime start = LocalDate.now().plusYears(7).atTime(9, 0);
+        String booking = "{\"title\":\"Token\",\"startTime\":\"" + start
+                + "\",\"endTime\":\"" + start.plusHours(1) + "\"}";
+        book(accessToken, key, booking).andExpect(status().isOk());
+
+        // A replayed booking runs no SQL of its own, so any statement would come from authentication
+        assertWithinBudget(0, () -> book(accessToken, key, booking).andExpect(status().isOk()));
+    }
+
+    @Test
+    void accessToken_WithoutAnIdIsRejected() throws Exception {
+        String legacy = Jwts.builder()
+                .subject(EMAIL)
+                .claim("userId", user.getId())
+                .claim("role", "USER")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                .compact();
+
+        appointments(legacy).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void register_DuplicateEmailIsAConflict() throws Exception {
+        String email = "signup-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(get("/api/auth/email-available").param("email", email))
+                .andExpect(jsonPath("$.data").value(true));
+
+        register(email).andExpect(status().isOk());
+        register(email)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Email is already registered"));
+
+        mockMvc.perform(get("/api/auth/email-available").param("email", email))
+                .andExpect(jsonPath("$.data").value(false));
+    }
+
+    private ResultActions register(String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"New\",\"lastName\":\"User\",\"email\":\"" + email
+                        + "\",\"password\":\"" + PASSWORD + "\"}"));
+    }
+
+    private ResultActions appointments(String accessToken) throws Exception {
+        return mockMvc.perform(get("/api/appointments").header("Authorization", "Bearer " + accessToken));
+    }
+
+    private ResultActions book(String accessToken, String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/appointments")
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private JsonNode login() throws Exception {
+        return body(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk()));
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private JsonNode body(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString()).path("data");
+    }
+}
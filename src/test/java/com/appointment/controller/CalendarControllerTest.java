@@ -0,0 +1,136 @@
+package com.appointment.controller;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.AppointmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static com.appointment.support.QueryBudget.assertWithinBudget;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CalendarControllerTest {
+
+    private static final String EMAIL = "calendar@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    private final LocalDateTime nine = LocalDate.now().plusYears(6).atTime(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by every test context, but each context recreates the schema
+        entityManagerFactory.getCache().evictAll();
+        appointmentRepository.deleteAll();
+        user = userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("encoded")
+                .firstName("Calendar")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void feed_ListsAppointmentsAndAnswersUnchangedPollsFromMemory() throws Exception {
+        book("Checkup; annual, with notes", nine);
+        String feed = feedPath();
+
+        MvcResult first = fetch(feed, null);
+        String body = first.getResponse().getContentAsString();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(body.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(body.contains("SUMMARY:Checkup\\; annual\\, with notes\r\n"));
+        assertTrue(body.contains("STATUS:CONFIRMED\r\n"));
+        assertNotNull(etag);
+
+        // Token check against the cached user, version from memory: no statements at all
+        assertWithinBudget(0, () -> mockMvc.perform(get(feed).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()));
+
+        book("Follow-up", nine.plusDays(1));
+        MvcResult changed = fetch(feed, etag);
+        assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(changed.getResponse().getContentAsString().contains("SUMMARY:Follow-up\r\n"));
+    }
+
+    @Test
+    void feed_UnknownOrResetTokensAreNotFound() throws Exception {
+        String feed = feedPath();
+        String token = feed.substring(feed.lastIndexOf('/') + 1, feed.length() - ".ics".length());
+        String forged = token.substring(0, token.indexOf('-') + 1) + "x".repeat(32);
+        mockMvc.perform(get("/api/calendar/" + forged + ".ics")).andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/calendar/feed/reset").with(user(EMAIL).roles("USER")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(feed)).andExpect(status().isNotFound());
+        assertNotEquals(feed, feedPath());
+    }
+
+    private MvcResult fetch(String path, String etag) throws Exception {
+        MvcResult started = mockMvc.perform(etag == null ? get(path) : get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private String feedPath() throws Exception {
+        String response = mockMvc.perform(get("/api/calendar/feed").with(user(EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return URI.create(objectMapper.readTree(response).path("data").asText()).getPath();
+    }
+
+    private void book(String title, LocalDateTime start) {
+        appointmentService.createAppointment(user.getId(), AppointmentRequest.builder()
+                .title(title)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build());
+    }
+}
@@ -0,0 +1,103 @@
+package com.appointment.controller;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContentNegotiationTest {
+
+    private static final String EMAIL = "formats@example.com";
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final LocalDateTime start = LocalDate.now().plusYears(4).atTime(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.findByEmail(EMAIL).orElseGet(() -> userRepository.save(User.builder()
+                .email(EMAIL)
+                .password("encoded")
+                .firstName("Format")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+        if (appointmentRepository.findByUserId(user.getId()).isEmpty()) {
+            appointmentRepository.save(Appointment.builder()
+                    .user(user)
+                    .title("Negotiated")
+                    .startTime(start)
+                    .endTime(start.plusHours(1))
+                    .status(Appointment.AppointmentStatus.SCHEDULED)
+                    .build());
+        }
+    }
+
+    @Test
+    void getMyAppointments_DefaultsToJson() throws Exception {
+        mockMvc.perform(get("/api/appointments").with(user(EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data[0].title").value("Negotiated"));
+    }
+
+    @Test
+    void getMyAppointments_ReturnsCborWhenAccepted() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/appointments")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .with(user(EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode appointment = new CBORMapper().readTree(body).path("data").path(0);
+        assertEquals("Negotiated", appointment.path("title").asText());
+        assertEquals(start + ":00", appointment.path("startTime").asText());
+    }
+
+    @Test
+    void getMyAppointments_ReturnsSmileWhenAccepted() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/appointments")
+                        .accept(SMILE)
+                        .with(user(EMAIL).roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode appointment = new SmileMapper().readTree(body).path("data").path(0);
+        assertEquals("Negotiated", appointment.path("title").asText());
+        assertEquals(EMAIL, appointment.path("userEmail").asText());
+    }
+}
@@ -0,0 +1,120 @@
+package com.appointment.controller;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.entity.User;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.AppointmentService;
+import com.appointment.service.SlotStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SlotStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotStreamService slotStreamService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void streamSlots_PushesChangedSlotsWhenABookingCommits() throws Exception {
+        User user = streamUser();
+        LocalDate day = LocalDate.now().plusYears(3);
+        LocalDateTime start = day.atTime(10, 0);
+
+        MvcResult result = mockMvc.perform(get("/api/appointments/slots/stream")
+                        .param("dates", day.toString())
+                        .with(user("stream@example.com").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        appointmentService.createAppointment(user.getId(), AppointmentRequest.builder()
+                .title("Streamed")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build());
+
+        String body = awaitSlots(result);
+        assertTrue(body.contains("\"startTime\":\"" + start + ":00\""), body);
+        assertTrue(body.contains("\"available\":false"), body);
+        assertFalse(body.contains(day.atTime(11, 0) + ":00\",\"endTime"), "only the touched slot is sent: " + body);
+    }
+
+    @Test
+    void refresh_PushesAMoveOffTheDateMadeOnAnotherNode() throws Exception {
+        User user = streamUser();
+        LocalDate day = LocalDate.now().plusYears(3).plusDays(7);
+        LocalDateTime start = day.atTime(10, 0);
+        AppointmentResponse booked = appointmentService.createAppointment(user.getId(), AppointmentRequest.builder()
+                .title("Moved elsewhere")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/appointments/slots/stream")
+                        .param("dates", day.toString())
+                        .with(user("stream@example.com").roles("USER")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The stored slots for the date are loaded on the fan-out thread
+        Thread.sleep(200);
+
+        // As another node would: no event here, and the row no longer touches the subscribed date
+        LocalDateTime moved = start.plusDays(1);
+        jdbcTemplate.update("UPDATE appointments SET start_time = ?, end_time = ?, updated_at = ? WHERE id = ?",
+                moved, moved.plusHours(1), LocalDateTime.now(), booked.getId());
+        slotStreamService.refresh();
+
+        String body = awaitSlots(result);
+        assertTrue(body.contains("\"startTime\":\"" + start + ":00\""), body);
+        assertTrue(body.contains("\"available\":true"), body);
+        assertFalse(body.contains("\"available\":false"), body);
+    }
+
+    private User streamUser() {
+        return userRepository.findByEmail("stream@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("stream@example.com")
+                .password("encoded")
+                .firstName("Stream")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    private static String awaitSlots(MvcResult result) throws Exception {
+        String body = "";
+        for (int i = 0; i < 50 && !body.contains("event:slots"); i++) {
+            Thread.sleep(100);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains("event:slots"), body);
+        return body;
+    }
+}
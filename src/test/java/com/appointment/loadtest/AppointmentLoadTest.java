@@ -0,0 +1,291 @@
+package com.appointment.loadtest;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.Resource;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.ResourceRepository;
+import com.appointment.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test that drives the real HTTP stack (Tomcat, security filter chain,
+ * controllers, JPA) against an embedded H2 database in PostgreSQL mode.
+ * <p>
+ * Excluded from the default build; run it with {@code mvn -Pload-test test}. The shape
+ * of the run can be tuned with {@code -Dloadtest.threads}, {@code -Dloadtest.durationSeconds},
+ * {@code -Dloadtest.warmupSeconds}, {@code -Dloadtest.users}, {@code -Dloadtest.resources} and
+ * {@code -Dloadtest.appointments}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@Slf4j
+class AppointmentLoadTest {
+
+    private static final String PASSWORD = "password123";
+    private static final String ADMIN_EMAIL = "admin@appointment.com";
+    private static final String ADMIN_PASSWORD = "admin123";
+
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 16);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.durationSeconds", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmupSeconds", 5);
+    private static final int USERS = Integer.getInteger("loadtest.users", 50);
+    private static final int RESOURCES = Integer.getInteger("loadtest.resources", 4);
+    private static final int APPOINTMENTS = Integer.getInteger("loadtest.appointments", 2000);
+
+    private static final String[] ENDPOINTS = {"login", "slots", "book", "list", "admin-list"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // Shut down after the class, so its threads do not outlive the run in a shared JVM
+    private static final ExecutorService HTTP_EXECUTOR = Executors.newFixedThreadPool(4);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(HTTP_EXECUTOR)
+            .build();
+
+    private final AtomicLong bookingSequence = new AtomicLong();
+
+    private List<Long> resourceIds;
+
+    private LocalDateTime seedStart;
+    private LocalDateTime bookingBase;
+
+    @AfterAll
+    static void shutDownHttpExecutor() throws InterruptedException {
+        HTTP_EXECUTOR.shutdown();
+        if (!HTTP_EXECUTOR.awaitTermination(10, TimeUnit.SECONDS)) {
+            HTTP_EXECUTOR.shutdownNow();
+        }
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        List<String> emails = seed();
+        String adminToken = login(ADMIN_EMAIL, ADMIN_PASSWORD);
+        assertNotNull(adminToken, "admin login failed");
+
+        log.info("Warming up for {}s with {} threads", WARMUP_SECONDS, THREADS);
+        runPhase(emails, adminToken, WARMUP_SECONDS);
+
+        log.info("Measuring for {}s with {} threads", DURATION_SECONDS, THREADS);
+        long started = System.nanoTime();
+        Map<String, LatencyRecorder> results = runPhase(emails, adminToken, DURATION_SECONDS);
+        double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        long total = results.values().stream().mapToLong(LatencyRecorder::getCount).sum();
+        StringBuilder report = new StringBuilder(String.format("%nLoad test: %d threads, %.1fs, %d users, %d resources, %d seeded appointments, %.1f req/s overall%n",
+                THREADS, elapsedSeconds, USERS, RESOURCES, APPOINTMENTS, total / elapsedSeconds));
+        results.values().forEach(r -> report.append(r.summary(elapsedSeconds)).append('\n'));
+        log.info(report.toString());
+
+        results.values().forEach(r -> {
+            assertTrue(r.getCount() > 0, "no requests completed for " + r.getEndpoint());
+            assertEquals(0, r.getErrors(), "errors on " + r.getEndpoint());
+        });
+    }
+
+    private List<String> seed() {
+        // BCrypt is deliberately slow, so hash once and share the result between seeded users
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .email("loaduser" + i + "@example.com")
+                    .password(encodedPassword)
+                    .firstName("Load")
+                    .lastName("User" + i)
+                    .role(User.UserRole.USER)
+                    .build());
+        }
+        users = userRepository.saveAll(users);
+
+        List<Resource> resources = new ArrayList<>();
+        for (int i = 0; i < RESOURCES; i++) {
+            resources.add(Resource.builder()
+                    .name("Load resource " + i)
+                    .type(Resource.ResourceType.PROVIDER)
+                    .active(true)
+                    .build());
+        }
+        resources = resourceRepository.saveAll(resources);
+        resourceIds = resources.stream().map(Resource::getId).toList();
+
+        // Non-overlapping one-hour appointments per resource, starting a month ago
+        seedStart = LocalDate.now().minusDays(30).atStartOfDay();
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            LocalDateTime start = seedStart.plusHours(i / RESOURCES);
+            appointments.add(Appointment.builder()
+                    .user(users.get(i % users.size()))
+                    .resource(resources.get(i % RESOURCES))
+                    .title("Seeded appointment " + i)
+                    .description("Seeded by the load test")
+                    .startTime(start)
+                    .endTime(start.plusHours(1))
+                    .status(i % 10 == 0 ? Appointment.AppointmentStatus.CANCELLED : Appointment.AppointmentStatus.SCHEDULED)
+                    .build());
+        }
+        appointmentRepository.saveAll(appointments);
+
+        // New bookings go far beyond the seeded range so they never conflict with each other
+        bookingBase = LocalDate.now().plusYears(1).atStartOfDay();
+
+        return users.stream().map(User::getEmail).toList();
+    }
+
+    private Map<String, LatencyRecorder> runPhase(List<String> emails, String adminToken, int seconds) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String email = emails.get(t % emails.size());
+            futures.add(workers.submit(() -> runWorker(email, adminToken, deadline, ready)));
+        }
+
+        Map<String, LatencyRecorder> merged = newRecorders();
+        for (Future<Map<String, LatencyRecorder>> future : futures) {
+            future.get().forEach((endpoint, recorder) -> merged.get(endpoint).merge(recorder));
+        }
+        workers.shutdown();
+        return merged;
+    }
+
+    private Map<String, LatencyRecorder> runWorker(String email, String adminToken, long deadline, CountDownLatch ready) throws Exception {
+        Map<String, LatencyRecorder> recorders = newRecorders();
+        String token = login(email, PASSWORD);
+        ready.countDown();
+        ready.await();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int roll = random.nextInt(100);
+            long started = System.nanoTime();
+            boolean success;
+            String endpoint;
+            if (roll < 10) {
+                endpoint = "login";
+                String fresh = login(email, PASSWORD);
+                success = fresh != null;
+                if (success) {
+                    token = fresh;
+                }
+            } else if (roll < 50) {
+                endpoint = "slots";
+                LocalDate date = seedStart.toLocalDate().plusDays(random.nextInt(APPOINTMENTS / RESOURCES / 24 + 1));
+                Long resourceId = resourceIds.get(random.nextInt(RESOURCES));
+                success = get("/api/appointments/slots/" + date + "?resourceId=" + resourceId, token);
+            } else if (roll < 65) {
+                endpoint = "book";
+                success = book(token);
+            } else if (roll < 95) {
+                endpoint = "list";
+                success = get("/api/appointments", token);
+            } else {
+                endpoint = "admin-list";
+                success = get("/api/admin/appointments", adminToken);
+            }
+            recorders.get(endpoint).record(System.nanoTime() - started, success);
+        }
+        return recorders;
+    }
+
+    private Map<String, LatencyRecorder> newRecorders() {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        for (String endpoint : ENDPOINTS) {
+            recorders.put(endpoint, new LatencyRecorder(endpoint));
+        }
+        return recorders;
+    }
+
+    private String login(String email, String password) throws Exception {
+        String body = String.format("{\"email\":\"%s\",\"password\":\"%s\"}", email, password);
+        HttpResponse<String> response = httpClient.send(request("/api/auth/login", null)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        JsonNode json = objectMapper.readTree(response.body());
+        return json.path("data").path("token").asText(null);
+    }
+
+    private boolean book(String token) throws Exception {
+        // Each resource has its own calendar, so bookings are spread round-robin over them
+        long sequence = bookingSequence.getAndIncrement();
+        Long resourceId = resourceIds.get((int) (sequence % RESOURCES));
+        LocalDateTime start = bookingBase.plusHours(sequence / RESOURCES).truncatedTo(ChronoUnit.HOURS);
+        String body = String.format("{\"title\":\"Load test booking\",\"description\":\"Booked under load\",\"startTime\":\"%s\",\"endTime\":\"%s\",\"resourceId\":%d}",
+                start, start.plusHours(1), resourceId);
+        HttpResponse<Void> response = httpClient.send(request("/api/appointments", token)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() == 200;
+    }
+
+    private boolean get(String path, String token) throws Exception {
+        HttpResponse<Void> response = httpClient.send(request(path, token).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() == 200;
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,69 @@
+package com.appointment.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Per-endpoint latency samples. Each worker thread owns its own recorder,
+ * so recording is lock-free; recorders are merged once the run is over.
+ */
+class LatencyRecorder {
+
+    private final String endpoint;
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    LatencyRecorder(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long nanos, boolean success) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+        }
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    long getCount() {
+        return size;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the latency at the given percentile (0 &lt; p &lt;= 1) in milliseconds.
+     * Sorts the samples in place, so only call it after the run has finished.
+     */
+    double percentileMillis(double p) {
+        if (size == 0) {
+            return 0;
+        }
+        Arrays.sort(samples, 0, size);
+        int index = (int) Math.ceil(p * size) - 1;
+        return samples[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+
+    String summary(double elapsedSeconds) {
+        return String.format("%-10s %9d req %7d err %10.1f req/s   p50 %8.2f ms   p99 %8.2f ms   p999 %8.2f ms   max %8.2f ms",
+                endpoint, size, errors, size / elapsedSeconds,
+                percentileMillis(0.50), percentileMillis(0.99), percentileMillis(0.999), percentileMillis(1.0));
+    }
+}
@@ -0,0 +1,94 @@
+package com.appointment.service;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.ArchivedAppointmentRepository;
+import com.appointment.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.archive.batch-size=3")
+@ActiveProfiles("test")
+class AppointmentArchiveServiceTest {
+
+    @Autowired
+    private AppointmentArchiveService archiveService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        archivedAppointmentRepository.deleteAll();
+        user = userRepository.findByEmail("archive@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("archive@example.com")
+                .password("encoded")
+                .firstName("Archive")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void archiveOldAppointments_MovesOnlyRowsBeyondHorizonInBatches() {
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(1);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            appointments.add(appointment(longAgo.plusHours(i), Appointment.AppointmentStatus.COMPLETED));
+        }
+        appointments.add(appointment(LocalDateTime.now().minusDays(1), Appointment.AppointmentStatus.COMPLETED));
+        appointments.add(appointment(LocalDateTime.now().plusDays(1), Appointment.AppointmentStatus.SCHEDULED));
+        appointmentRepository.saveAll(appointments);
+
+        int archived = archiveService.archiveOldAppointments();
+
+        assertEquals(7, archived);
+        assertEquals(2, appointmentRepository.count());
+        assertEquals(7, archivedAppointmentRepository.count());
+        assertEquals(0, archiveService.archiveOldAppointments());
+    }
+
+    @Test
+    void getHistory_ReturnsArchivedAppointmentsInRange() {
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(1).withNano(0);
+        Appointment saved = appointmentRepository.save(appointment(longAgo, Appointment.AppointmentStatus.CANCELLED));
+
+        archiveService.archiveOldAppointments();
+
+        var history = archiveService.getHistory(longAgo.minusDays(1), longAgo.plusDays(1));
+        assertEquals(1, history.size());
+        assertEquals(saved.getId(), history.get(0).getId());
+        assertEquals("CANCELLED", history.get(0).getStatus());
+        assertEquals("archive@example.com", history.get(0).getUserEmail());
+        assertEquals(1, archiveService.getUserHistory(user.getId()).size());
+    }
+
+    private Appointment appointment(LocalDateTime start, Appointment.AppointmentStatus status) {
+        return Appointment.builder()
+                .user(user)
+                .title("Archive test")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .status(status)
+                .build();
+    }
+}
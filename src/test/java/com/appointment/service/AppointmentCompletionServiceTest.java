@@ -0,0 +1,82 @@
+package com.appointment.service;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentCompletionServiceTest {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentCompletionService completionService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Small chunks so a handful of rows exercises the watermark
+        completionService = new AppointmentCompletionService(appointmentRepository, transactionManager,
+                new SimpleMeterRegistry(), 2);
+        appointmentRepository.deleteAll();
+        user = userRepository.findByEmail("completion@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("completion@example.com")
+                .password("encoded")
+                .firstName("Completion")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void completePastAppointments_CompletesOnlyEndedScheduledAppointments() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Two rows share an end time so the (end_time, id) watermark is needed to reach both
+            appointments.add(appointment(yesterday.plusHours(i / 2), Appointment.AppointmentStatus.SCHEDULED));
+        }
+        appointments.add(appointment(yesterday, Appointment.AppointmentStatus.CANCELLED));
+        appointments.add(appointment(LocalDateTime.now().plusDays(1), Appointment.AppointmentStatus.SCHEDULED));
+        appointmentRepository.saveAll(appointments);
+
+        assertEquals(5, completionService.completePastAppointments());
+
+        assertEquals(5, appointmentRepository.countByStatus(Appointment.AppointmentStatus.COMPLETED));
+        assertEquals(1, appointmentRepository.countByStatus(Appointment.AppointmentStatus.CANCELLED));
+        assertEquals(1, appointmentRepository.countByStatus(Appointment.AppointmentStatus.SCHEDULED));
+        assertEquals(0, completionService.completePastAppointments());
+    }
+
+    private Appointment appointment(LocalDateTime start, Appointment.AppointmentStatus status) {
+        return Appointment.builder()
+                .user(user)
+                .title("Completion test")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .status(status)
+                .build();
+    }
+}
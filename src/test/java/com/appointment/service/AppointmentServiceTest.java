@@ -0,0 +1,141 @@
+package com.appointment.service;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.TimeSlotDto;
+import com.appointment.entity.User;
+import com.appointment.exception.BadRequestException;
+import com.appointment.exception.ConflictException;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.appointment.support.QueryBudget.assertWithinBudget;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentServiceTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    private final LocalDateTime nine = LocalDate.now().plusYears(5).atTime(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by every test context, but each context recreates the schema
+        entityManagerFactory.getCache().evictAll();
+        appointmentRepository.deleteAll();
+        user = userRepository.findByEmail("booking@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("booking@example.com")
+                .password("encoded")
+                .firstName("Booking")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void createAppointment_RejectsPartialOverlaps() {
+        book(nine, nine.plusHours(2));
+
+        assertThrows(ConflictException.class, () -> book(nine.minusMinutes(30), nine.plusMinutes(30)));
+        assertThrows(ConflictException.class, () -> book(nine.plusHours(1), nine.plusHours(3)));
+        assertThrows(ConflictException.class, () -> book(nine.plusMinutes(15), nine.plusMinutes(45)));
+        assertThrows(ConflictException.class, () -> book(nine.minusHours(1), nine.plusHours(3)));
+        assertEquals(1, appointmentRepository.count());
+    }
+
+    @Test
+    void createAppointment_ConflictSuggestsTheNearestFreeSlots() {
+        book(nine, nine.plusHours(1));
+        book(nine.plusHours(1), nine.plusHours(2));
+
+        ConflictException conflict = assertThrows(ConflictException.class, () -> book(nine, nine.plusHours(1)));
+
+        // 8:00 opens the day, so the closest three are one earlier and two later
+        List<?> alternatives = (List<?>) conflict.getDetails();
+        assertEquals(List.of(nine.minusHours(1), nine.plusHours(2), nine.plusHours(3)), alternatives.stream()
+                .map(slot -> ((TimeSlotDto) slot).getStartTime())
+                .toList());
+    }
+
+    @Test
+    void createAppointment_AllowsAdjacentSlotsAndCancelledOverlaps() {
+        AppointmentResponse first = book(nine, nine.plusHours(1));
+        book(nine.plusHours(1), nine.plusHours(2));
+        book(nine.minusHours(1), nine);
+
+        appointmentService.cancelAppointment(first.getId());
+        AppointmentResponse rebooked = book(nine, nine.plusHours(1));
+
+        assertEquals("SCHEDULED", rebooked.getStatus());
+        assertEquals("Booking User", rebooked.getUserName());
+        assertEquals(4, appointmentRepository.count());
+    }
+
+    @Test
+    void createAppointment_RejectsEmptyReversedAndOverlongRanges() {
+        BadRequestException empty = assertThrows(BadRequestException.class, () -> book(nine, nine));
+        assertEquals("End time must be after start time", empty.getMessage());
+        assertThrows(BadRequestException.class, () -> book(nine.plusHours(1), nine));
+        assertThrows(BadRequestException.class, () -> book(nine, nine.plus(AppointmentService.MAX_BOOKING_LENGTH).plusMinutes(1)));
+        assertEquals(0, appointmentRepository.count());
+    }
+
+    @Test
+    void getTimeSlotsForDate_MarksEverySlotAnAppointmentOverlaps() {
+        book(nine.plusMinutes(30), nine.plusHours(2));
+        book(nine.plusHours(4), nine.plusHours(5));
+
+        List<TimeSlotDto> slots = appointmentService.getTimeSlotsForDate(nine, null);
+
+        assertEquals(10, slots.size());
+        assertEquals(List.of(8, 11, 12), slots.stream()
+                .filter(TimeSlotDto::isAvailable)
+                .map(slot -> slot.getStartTime().getHour())
+                .filter(hour -> hour < 13)
+                .toList());
+        assertEquals("Booked", slots.get(1).getTitle());
+    }
+
+    @Test
+    void createAppointment_LocksResourceThenInsertsConditionally() throws Exception {
+        // Warms the default resource id and the user in the second-level cache
+        book(nine, nine.plusHours(1));
+
+        // Resource lock, conditional insert, outbox row, rollup row; no user load and no separate overlap query
+        AppointmentResponse response = assertWithinBudget(4, () -> book(nine.plusHours(1), nine.plusHours(2)));
+        assertNotNull(response.getId());
+        assertNotNull(response.getCreatedAt());
+    }
+
+    private AppointmentResponse book(LocalDateTime start, LocalDateTime end) {
+        return appointmentService.createAppointment(user.getId(), AppointmentRequest.builder()
+                .title("Booked")
+                .startTime(start)
+                .endTime(end)
+                .build());
+    }
+}
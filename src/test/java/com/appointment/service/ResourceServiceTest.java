@@ -0,0 +1,66 @@
+package com.appointment.service;
+
+import com.appointment.entity.Resource;
+import com.appointment.repository.ResourceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ResourceServiceTest {
+
+    @Autowired
+    private ResourceService resourceService;
+
+    @Autowired
+    private ResourceRepository resourceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Resource original;
+    private Resource standIn;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        original = resourceService.ensureDefaultResource();
+        standIn = resourceRepository.save(Resource.builder()
+                .name("Stand-in " + System.nanoTime())
+                .type(Resource.ResourceType.ROOM)
+                .active(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("UPDATE resources SET active = TRUE WHERE id = ?", original.getId());
+        resourceService.deactivateResource(standIn.getId());
+        entityManagerFactory.getCache().evictAll();
+        resourceService.ensureDefaultResource();
+    }
+
+    @Test
+    void lockForBooking_MovesOnWhenTheDefaultWasDeactivatedElsewhere() {
+        assertEquals(original.getId(), resourceService.resolveResourceId(null));
+
+        // As another node would: this node's remembered default and cached entity are not told
+        jdbcTemplate.update("UPDATE resources SET active = FALSE WHERE id = ?", original.getId());
+        Long next = resourceRepository.findFirstByActiveTrueOrderByIdAsc().orElseThrow().getId();
+
+        assertNotEquals(original.getId(), next);
+        assertEquals(next, resourceService.lockForBooking(null).getId());
+        assertEquals(next, resourceService.resolveResourceId(null));
+    }
+}
@@ -2,14 +2,17 @@ package com.appointment.service;
 
 import com.appointment.dto.RegisterRequest;
 import com.appointment.entity.User;
+import com.appointment.exception.ConflictException;
 import com.appointment.repository.UserRepository;
 import com.appointment.service.UserService;
+import com.appointment.service.registration.RegisteredEmails;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -27,6 +30,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     
+    @Mock
+    private RegisteredEmails registeredEmails;
+    
     @InjectMocks
     private UserService userService;
     
@@ -55,9 +61,8 @@ class UserServiceTest {
     @Test
     void registerUser_Success() {
         // Given
-        when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
         
         // When
         User result = userService.registerUser(registerRequest);
@@ -66,20 +71,43 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals("John", result.getFirstName());
         assertEquals("john@example.com", result.getEmail());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByEmail(any());
+        verify(registeredEmails).add("john@example.com");
     }
     
     @Test
     void registerUser_EmailAlreadyExists_ThrowsException() {
         // Given
-        when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
         
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        ConflictException exception = assertThrows(ConflictException.class,
                 () -> userService.registerUser(registerRequest));
         
         assertEquals("Email is already registered", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(registeredEmails, never()).add(any());
+    }
+    
+    @Test
+    void isEmailAvailable_EmailUnknownToFilter_SkipsTheDatabase() {
+        // Given
+        when(registeredEmails.mightBeRegistered("new@example.com")).thenReturn(false);
+        
+        // When & Then
+        assertTrue(userService.isEmailAvailable("new@example.com"));
+        verifyNoInteractions(userRepository);
+    }
+    
+    @Test
+    void isEmailAvailable_PossibleMatch_IsConfirmedByTheDatabase() {
+        // Given
+        when(registeredEmails.mightBeRegistered("john@example.com")).thenReturn(true);
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+        
+        // When & Then
+        assertFalse(userService.isEmailAvailable("john@example.com"));
     }
     
     @Test
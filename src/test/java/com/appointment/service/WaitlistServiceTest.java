@@ -0,0 +1,153 @@
+package com.appointment.service;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.WaitlistResponse;
+import com.appointment.entity.Appointment;
+import com.appointment.entity.User;
+import com.appointment.entity.WaitlistEntry;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.appointment.repository.WaitlistEntryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WaitlistServiceTest {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User holder;
+    private User early;
+    private User late;
+
+    private final LocalDateTime nine = LocalDate.now().plusYears(7).atTime(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by every test context, but each context recreates the schema
+        entityManagerFactory.getCache().evictAll();
+        waitlistEntryRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        holder = user("holder@example.com");
+        early = user("early@example.com");
+        late = user("late@example.com");
+    }
+
+    @Test
+    void cancelAppointment_BooksTheHeadOfTheWaitlist() {
+        AppointmentResponse taken = appointmentService.createAppointment(holder.getId(), request());
+        WaitlistResponse first = waitlistService.join(early.getId(), request());
+        WaitlistResponse second = waitlistService.join(late.getId(), request());
+
+        appointmentService.cancelAppointment(taken.getId());
+
+        WaitlistEntry promoted = waitlistEntryRepository.findById(first.getId()).orElseThrow();
+        assertEquals(WaitlistEntry.WaitlistStatus.PROMOTED, promoted.getStatus());
+        Appointment booked = appointmentRepository.findById(promoted.getAppointmentId()).orElseThrow();
+        assertEquals(early.getId(), booked.getUser().getId());
+        assertEquals(Appointment.AppointmentStatus.SCHEDULED, booked.getStatus());
+        assertEquals(WaitlistEntry.WaitlistStatus.WAITING,
+                waitlistEntryRepository.findById(second.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void cancelAppointment_PrefersHigherPriorityOverEarlierJoin() {
+        AppointmentResponse taken = appointmentService.createAppointment(holder.getId(), request());
+        waitlistService.join(early.getId(), request());
+        WaitlistResponse urgent = waitlistService.join(late.getId(), request());
+        waitlistService.setPriority(urgent.getId(), 10);
+
+        appointmentService.cancelAppointment(taken.getId());
+
+        assertEquals(WaitlistEntry.WaitlistStatus.PROMOTED,
+                waitlistEntryRepository.findById(urgent.getId()).orElseThrow().getStatus());
+        assertEquals(1, appointmentRepository.findByUserIdAndStatus(late.getId(), Appointment.AppointmentStatus.SCHEDULED).size());
+    }
+
+    @Test
+    void updateAppointment_BooksTheWaitlistIntoTheVacatedRange() {
+        AppointmentResponse taken = appointmentService.createAppointment(holder.getId(), request());
+        WaitlistResponse waiting = waitlistService.join(early.getId(), request());
+
+        appointmentService.updateAppointment(taken.getId(), AppointmentRequest.builder()
+                .title("Moved")
+                .startTime(nine.plusHours(2))
+                .endTime(nine.plusHours(3))
+                .build());
+
+        WaitlistEntry promoted = waitlistEntryRepository.findById(waiting.getId()).orElseThrow();
+        assertEquals(WaitlistEntry.WaitlistStatus.PROMOTED, promoted.getStatus());
+        Appointment booked = appointmentRepository.findById(promoted.getAppointmentId()).orElseThrow();
+        assertEquals(early.getId(), booked.getUser().getId());
+        assertEquals(nine, booked.getStartTime());
+    }
+
+    @Test
+    void join_RejectsFreeSlotsAndDuplicates() {
+        assertThrows(RuntimeException.class, () -> waitlistService.join(early.getId(), request()));
+
+        appointmentService.createAppointment(holder.getId(), request());
+        waitlistService.join(early.getId(), request());
+
+        assertThrows(RuntimeException.class, () -> waitlistService.join(early.getId(), request()));
+    }
+
+    @Test
+    void leave_RemovesTheUserFromTheQueue() {
+        AppointmentResponse taken = appointmentService.createAppointment(holder.getId(), request());
+        WaitlistResponse entry = waitlistService.join(early.getId(), request());
+
+        waitlistService.leave(early.getId(), entry.getId());
+        appointmentService.cancelAppointment(taken.getId());
+
+        assertEquals(WaitlistEntry.WaitlistStatus.LEFT,
+                waitlistEntryRepository.findById(entry.getId()).orElseThrow().getStatus());
+        assertTrue(appointmentRepository.findByUserId(early.getId()).isEmpty());
+        assertThrows(RuntimeException.class, () -> waitlistService.leave(early.getId(), entry.getId()));
+    }
+
+    private AppointmentRequest request() {
+        return AppointmentRequest.builder()
+                .title("Wanted")
+                .startTime(nine)
+                .endTime(nine.plusHours(1))
+                .build();
+    }
+
+    private User user(String email) {
+        return userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder()
+                .email(email)
+                .password("encoded")
+                .firstName("Waiting")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+}
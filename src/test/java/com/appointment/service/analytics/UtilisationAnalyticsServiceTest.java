@@ -0,0 +1,135 @@
+package com.appointment.service.analytics;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.MonthlyUtilisation;
+import com.appointment.dto.UtilisationHeatmap;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentHourlyStatsRepository;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.ArchivedAppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.AppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static com.appointment.support.QueryBudget.assertWithinBudget;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UtilisationAnalyticsServiceTest {
+
+    @Autowired
+    private UtilisationAnalyticsService analyticsService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private AppointmentHourlyStatsRepository statsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    private final YearMonth month = YearMonth.now().plusYears(7);
+    private final LocalDateTime monday = month.atDay(1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY)).atTime(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by every test context, but each context recreates the schema
+        entityManagerFactory.getCache().evictAll();
+        appointmentRepository.deleteAll();
+        archivedAppointmentRepository.deleteAll();
+        statsRepository.deleteAll();
+        user = userRepository.findByEmail("analytics@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("analytics@example.com")
+                .password("encoded")
+                .firstName("Analytics")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void rollupsFollowBookingsCancellationsAndReschedules() throws Exception {
+        AppointmentResponse moved = book(monday, monday.plusHours(1));
+        book(monday.plusMinutes(90), monday.plusHours(3));
+        AppointmentResponse cancelled = book(monday.plusHours(5), monday.plusHours(6));
+        appointmentService.cancelAppointment(cancelled.getId());
+        appointmentService.updateAppointment(moved.getId(), request(monday.plusDays(1), monday.plusDays(1).plusHours(1)));
+
+        // Only the rollups are read, plus the resource count for capacity
+        List<MonthlyUtilisation> months = assertWithinBudget(2, () -> analyticsService.monthly(month, month, null));
+        MonthlyUtilisation summary = months.get(0);
+        assertEquals(3, summary.getBookings());
+        assertEquals(1, summary.getCancellations());
+        assertEquals(1.0 / 3, summary.getCancellationRate(), 1e-9);
+        assertEquals(60 + 90, summary.getBookedMinutes());
+        assertEquals(3, summary.getLeadLonger());
+
+        UtilisationHeatmap heatmap = analyticsService.heatmap(month.atDay(1), month.plusMonths(1).atDay(1), null);
+        assertEquals(0, cell(heatmap, DayOfWeek.MONDAY, 9).getBookedMinutes());
+        assertEquals(60, cell(heatmap, DayOfWeek.TUESDAY, 9).getBookedMinutes());
+        assertEquals(30, cell(heatmap, DayOfWeek.MONDAY, 10).getBookedMinutes());
+        assertEquals(60, cell(heatmap, DayOfWeek.MONDAY, 11).getBookedMinutes());
+        assertEquals(1, cell(heatmap, DayOfWeek.MONDAY, 14).getCancellations());
+        assertEquals(0, cell(heatmap, DayOfWeek.MONDAY, 14).getBookedMinutes());
+        assertNull(cell(heatmap, DayOfWeek.MONDAY, 3).getUtilisation());
+
+        // Recomputing from the appointments lands on the same totals
+        analyticsService.rebuild();
+        assertEquals(months, analyticsService.monthly(month, month, null));
+    }
+
+    @Test
+    void deletingAnAppointmentRemovesItFromTheRollups() {
+        AppointmentResponse appointment = book(monday, monday.plusHours(2));
+        appointmentService.deleteAppointment(appointment.getId());
+
+        MonthlyUtilisation summary = analyticsService.monthly(month, month, null).get(0);
+        assertEquals(0, summary.getBookings());
+        assertEquals(0, summary.getBookedMinutes());
+        assertNull(summary.getCancellationRate());
+    }
+
+    private static UtilisationHeatmap.Cell cell(UtilisationHeatmap heatmap, DayOfWeek dayOfWeek, int hour) {
+        return heatmap.getCells().stream()
+                .filter(cell -> cell.getDayOfWeek() == dayOfWeek && cell.getHour() == hour)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private AppointmentResponse book(LocalDateTime start, LocalDateTime end) {
+        return appointmentService.createAppointment(user.getId(), request(start, end));
+    }
+
+    private static AppointmentRequest request(LocalDateTime start, LocalDateTime end) {
+        return AppointmentRequest.builder()
+                .title("Analysed")
+                .startTime(start)
+                .endTime(end)
+                .build();
+    }
+}
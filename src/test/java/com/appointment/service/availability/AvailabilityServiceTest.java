@@ -0,0 +1,83 @@
+package com.appointment.service.availability;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.dto.TimeSlotDto;
+import com.appointment.entity.User;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.AppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AvailabilityServiceTest {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    private final LocalDateTime nine = LocalDate.now().plusYears(6).atTime(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        user = userRepository.findByEmail("availability@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("availability@example.com")
+                .password("encoded")
+                .firstName("Availability")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void reconcile_FreesBookingsDeletedElsewhere() {
+        AppointmentResponse booked = appointmentService.createAppointment(user.getId(), AppointmentRequest.builder()
+                .title("Deleted on another node")
+                .startTime(nine)
+                .endTime(nine.plusHours(1))
+                .build());
+        assertEquals(nine.plusHours(1), nextFreeHour());
+
+        // A delete on another node publishes no event here and leaves no row for the refresh
+        jdbcTemplate.update("DELETE FROM appointments WHERE id = ?", booked.getId());
+        availabilityService.refresh();
+        assertEquals(nine.plusHours(1), nextFreeHour());
+
+        availabilityService.reconcile();
+
+        assertEquals(nine, nextFreeHour());
+    }
+
+    private LocalDateTime nextFreeHour() {
+        return availabilityService.findNextAvailable(null, nine, Duration.ofHours(1), 1).stream()
+                .findFirst()
+                .map(TimeSlotDto::getStartTime)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,76 @@
+package com.appointment.service.availability;
+
+import com.appointment.config.ScheduleProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusinessCalendarTest {
+
+    // A Monday
+    private final LocalDate monday = LocalDate.of(2030, 3, 4);
+
+    @Test
+    void templateFor_UsesPerWeekdayHoursAndSlotLength() {
+        BusinessCalendar calendar = calendar(Map.of(
+                "app.schedule.slot-length", "15m",
+                "app.schedule.opens", "09:00",
+                "app.schedule.closes", "17:00",
+                "app.schedule.days.saturday.opens", "10:00",
+                "app.schedule.days.saturday.closes", "12:30"));
+
+        DayTemplate weekday = calendar.templateFor(monday);
+        assertEquals(32, weekday.slotCount());
+        assertEquals(LocalTime.of(9, 0), weekday.start(0));
+        assertEquals(LocalTime.of(17, 0), weekday.end(31));
+
+        DayTemplate saturday = calendar.templateFor(monday.plusDays(5));
+        assertEquals(10, saturday.slotCount());
+        assertEquals(LocalTime.of(12, 15), saturday.start(9));
+    }
+
+    @Test
+    void templateFor_ClosesHolidaysAndClosedWeekdays() {
+        BusinessCalendar calendar = calendar(Map.of(
+                "app.schedule.days.sunday.closed", "true",
+                "app.schedule.holidays[0]", "2030-03-05"));
+
+        assertTrue(calendar.templateFor(monday.minusDays(1)).isClosed());
+        assertTrue(calendar.templateFor(monday.plusDays(1)).isClosed());
+        assertEquals(10, calendar.templateFor(monday).slotCount());
+    }
+
+    @Test
+    void firstStartAtOrAfter_SkipsClosedDaysAndShortDays() {
+        BusinessCalendar calendar = calendar(Map.of(
+                "app.schedule.days.saturday.closes", "10:00",
+                "app.schedule.days.sunday.closed", "true",
+                "app.schedule.holidays[0]", "2030-03-11"));
+        LocalDateTime fridayEvening = monday.plusDays(4).atTime(17, 30);
+
+        assertEquals(monday.plusDays(5).atTime(8, 0), calendar.firstStartAtOrAfter(fridayEvening, Duration.ofHours(2)));
+        // Too long for Saturday; Sunday is closed and Monday the 11th a holiday
+        assertEquals(monday.plusDays(8).atTime(8, 0), calendar.firstStartAtOrAfter(fridayEvening, Duration.ofHours(3)));
+        assertNull(calendar.firstStartAtOrAfter(fridayEvening, Duration.ofHours(11)));
+    }
+
+    @Test
+    void rejectsUnsupportedSlotLengths() {
+        assertThrows(IllegalStateException.class, () -> calendar(Map.of("app.schedule.slot-length", "20m")));
+    }
+
+    private static BusinessCalendar calendar(Map<String, String> properties) {
+        ScheduleProperties bound = new Binder(new MapConfigurationPropertySource(properties))
+                .bind("app.schedule", ScheduleProperties.class)
+                .orElseGet(ScheduleProperties::new);
+        return new BusinessCalendar(bound);
+    }
+}
@@ -0,0 +1,102 @@
+package com.appointment.service.availability;
+
+import com.appointment.config.ScheduleProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeGapIndexTest {
+
+    // Defaults: every day 08:00-18:00 in one-hour slots
+    private static final BusinessCalendar HOURS = new BusinessCalendar(new ScheduleProperties());
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private final LocalDate day = LocalDate.of(2030, 3, 4);
+
+    @Test
+    void find_SkipsTakenRangesAndClosedHours() {
+        FreeGapIndex index = new FreeGapIndex();
+        index.occupy(1, at(8), at(10));
+        index.occupy(2, at(11), at(17));
+
+        assertEquals(List.of(slot(10, 11), slot(17, 18), nextDay(8, 9)),
+                index.find(at(7), far(), HOUR, 3, HOURS));
+    }
+
+    @Test
+    void find_RoundsUpToTheSlotGridAndFitsTheLength() {
+        FreeGapIndex index = new FreeGapIndex();
+        index.occupy(1, at(12), at(13));
+
+        List<FreeGapIndex.Interval> found = index.find(at(9).plusMinutes(20), far(), Duration.ofHours(2), 3, HOURS);
+
+        assertEquals(List.of(
+                new FreeGapIndex.Interval(at(10), at(12)),
+                new FreeGapIndex.Interval(at(13), at(15)),
+                new FreeGapIndex.Interval(at(14), at(16))), found);
+    }
+
+    @Test
+    void release_MergesTheRangeBackIntoItsNeighbours() {
+        FreeGapIndex index = new FreeGapIndex();
+        index.occupy(1, at(8), at(9));
+        index.occupy(2, at(9), at(10));
+        index.occupy(3, at(10), at(11));
+
+        index.release(2);
+
+        assertEquals(List.of(slot(9, 10), slot(11, 12)), index.find(at(8), far(), HOUR, 2, HOURS));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void release_KeepsRangesStillCoveredByAnOverlappingAppointment() {
+        FreeGapIndex index = new FreeGapIndex();
+        index.occupy(1, at(8), at(12));
+        index.occupy(2, at(10), at(11));
+
+        index.release(2);
+        assertEquals(List.of(slot(12, 13)), index.find(at(8), far(), HOUR, 1, HOURS));
+
+        index.release(1);
+        assertEquals(List.of(slot(8, 9)), index.find(at(8), far(), HOUR, 1, HOURS));
+    }
+
+    @Test
+    void occupy_ReplacesTheAppointmentsPreviousRange() {
+        FreeGapIndex index = new FreeGapIndex();
+        index.occupy(1, at(8), at(9));
+        index.occupy(1, at(9), at(10));
+
+        assertEquals(List.of(slot(8, 9), slot(10, 11)), index.find(at(8), far(), HOUR, 2, HOURS));
+    }
+
+    @Test
+    void find_StopsAtUntilAndRejectsLengthsLongerThanTheDay() {
+        FreeGapIndex index = new FreeGapIndex();
+
+        assertEquals(List.of(slot(8, 9), slot(9, 10)), index.find(at(8), at(10), HOUR, 5, HOURS));
+        assertEquals(List.of(), index.find(at(8), far(), Duration.ofHours(11), 5, HOURS));
+    }
+
+    private LocalDateTime at(int hour) {
+        return day.atTime(hour, 0);
+    }
+
+    private LocalDateTime far() {
+        return day.plusYears(1).atStartOfDay();
+    }
+
+    private FreeGapIndex.Interval slot(int from, int to) {
+        return new FreeGapIndex.Interval(at(from), at(to));
+    }
+
+    private FreeGapIndex.Interval nextDay(int from, int to) {
+        return new FreeGapIndex.Interval(at(from).plusDays(1), at(to).plusDays(1));
+    }
+}
@@ -0,0 +1,35 @@
+package com.appointment.service.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsWriterTest {
+
+    @Test
+    void begin_FoldsMixedWidthTextAtSeventyFiveOctets() throws Exception {
+        // One, two, three and four UTF-8 bytes per code point
+        String name = "Team é 日 📅 ".repeat(12);
+        StringWriter out = new StringWriter();
+        IcsWriter writer = new IcsWriter(out, ZoneOffset.UTC);
+
+        writer.begin(name);
+
+        String[] lines = out.toString().split("\r\n");
+        StringBuilder unfolded = new StringBuilder();
+        for (String line : lines) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+            assertFalse(Character.isLowSurrogate(line.charAt(line.startsWith(" ") ? 1 : 0)), "a pair is split: " + line);
+            if (line.startsWith(" ")) {
+                unfolded.append(line, 1, line.length());
+            } else {
+                unfolded.append('\n').append(line);
+            }
+        }
+        assertTrue(unfolded.toString().contains("\nX-WR-CALNAME:" + name.replace(",", "\\,")));
+    }
+}
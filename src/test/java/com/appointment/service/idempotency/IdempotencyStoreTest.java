@@ -0,0 +1,117 @@
+package com.appointment.service.idempotency;
+
+import com.appointment.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    void reserve_DuplicateWaitsForTheOwnersResponse() throws Exception {
+        IdempotencyStore store = store(10);
+        IdempotencyStore.Reservation first = store.reserve("k", "body");
+        IdempotencyStore.Reservation duplicate = store.reserve("k", "body");
+
+        assertTrue(first.owner());
+        assertFalse(duplicate.owner());
+        assertFalse(duplicate.response().isDone());
+
+        store.complete("k", response("created"));
+
+        assertEquals("created", new String(duplicate.response().get().getBody(), StandardCharsets.UTF_8));
+        assertFalse(store.reserve("k", "body").owner());
+    }
+
+    @Test
+    void release_WakesDuplicatesAndFreesTheKey() throws Exception {
+        IdempotencyStore store = store(10);
+        store.reserve("k", "body");
+        IdempotencyStore.Reservation duplicate = store.reserve("k", "body");
+
+        store.release("k");
+
+        assertNull(duplicate.response().get());
+        assertTrue(store.reserve("k", "body").owner());
+    }
+
+    @Test
+    void reserve_ReportsTheFingerprintTheKeyWasFirstUsedWith() {
+        IdempotencyStore store = store(10);
+        store.reserve("k", "body");
+
+        assertEquals("body", store.reserve("k", "other body").fingerprint());
+    }
+
+    @Test
+    void reserve_ForgetsCompletedEntriesAfterTheTtl() {
+        IdempotencyStore store = store(10);
+        store.reserve("k", "body");
+        store.complete("k", response("created"));
+
+        clock.advance(Duration.ofHours(1).minusMillis(1));
+        assertFalse(store.reserve("k", "body").owner());
+
+        clock.advance(Duration.ofMillis(1));
+        assertTrue(store.reserve("k", "body").owner());
+    }
+
+    @Test
+    void reserve_EvictsOldestCompletedEntriesButNeverInFlightOnes() {
+        IdempotencyStore store = store(2);
+        store.reserve("in-flight", "body");
+        store.reserve("done", "body");
+        store.complete("done", response("created"));
+
+        assertTrue(store.reserve("new", "body").owner());
+
+        assertEquals(2, store.size());
+        assertFalse(store.reserve("in-flight", "body").owner());
+        assertTrue(store.reserve("done", "body").owner());
+    }
+
+    private IdempotencyStore store(int maxEntries) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ofHours(1));
+        properties.setMaxEntries(maxEntries);
+        return new IdempotencyStore(properties, new SimpleMeterRegistry(), clock);
+    }
+
+    private static StoredResponse response(String body) {
+        return new StoredResponse(201, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class ManualClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
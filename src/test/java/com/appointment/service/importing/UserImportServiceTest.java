@@ -0,0 +1,153 @@
+package com.appointment.service.importing;
+
+import com.appointment.dto.UserImportResponse;
+import com.appointment.dto.UserImportResponse.RowResult;
+import com.appointment.dto.UserImportResponse.RowStatus;
+import com.appointment.entity.User;
+import com.appointment.exception.BadRequestException;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.user-import.batch-size=3")
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String domain = "@" + UUID.randomUUID() + ".example.com";
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by every test context, but each context recreates the schema
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void importUsers_ReportsEveryCsvRowAndInsertsTheNewOnes() {
+        userRepository.save(User.builder()
+                .email("existing" + domain)
+                .password("encoded")
+                .firstName("Existing")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build());
+        // Warms the cached "not registered" answer the import has to invalidate
+        assertTrue(userService.isEmailAvailable("ann" + domain));
+
+        String csv = "\uFEFFEmail,first_name,last_name,password\n"
+                + "ann" + domain + ",Ann,Lee,secret123\n"
+                + "\n"
+                + "\"bob" + domain + "\",\"Bob, Jr\",Stone,secret123\n"
+                + "not-an-email,Carl,Moe,secret123\n"
+                + "ann" + domain + ",Ann,Again,secret123\n"
+                + "existing" + domain + ",Existing,User,secret123\n"
+                + "dan" + domain + ",Dan,Short,123\n"
+                + "eve" + domain + ",Eve,\"Unclosed,secret123\n"
+                + "fay" + domain + ",Fay,Ray,secret123\n";
+
+        List<RowResult> rows = new ArrayList<>();
+        UserImportResponse response = importUsers(csv, UserImportService.Format.CSV, rows);
+
+        assertEquals(8, response.getTotal());
+        assertEquals(3, response.getCreated());
+        assertEquals(2, response.getDuplicates());
+        assertEquals(3, response.getInvalid());
+        assertTrue(response.getRowsPerSecond() > 0);
+        assertEquals(List.of(2L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), rows.stream().map(RowResult::getLine).toList());
+        assertEquals(List.of(RowStatus.CREATED, RowStatus.CREATED, RowStatus.INVALID, RowStatus.DUPLICATE,
+                        RowStatus.DUPLICATE, RowStatus.INVALID, RowStatus.INVALID, RowStatus.CREATED),
+                rows.stream().map(RowResult::getStatus).toList());
+
+        User bob = userRepository.findByEmail("bob" + domain).orElseThrow();
+        assertEquals("Bob, Jr", bob.getFirstName());
+        assertEquals(User.UserRole.USER, bob.getRole());
+        assertTrue(passwordEncoder.matches("secret123", bob.getPassword()));
+        assertFalse(userService.isEmailAvailable("ann" + domain));
+    }
+
+    @Test
+    void importUsers_ReadsNdjsonAndReportsUnparseableLines() {
+        String ndjson = "{\"email\":\"gus" + domain + "\",\"firstName\":\"Gus\",\"lastName\":\"Hale\",\"password\":\"secret123\"}\n"
+                + "{\"email\":\n"
+                + "null\n"
+                + "{\"email\":\"hal" + domain + "\",\"firstName\":\"Hal\",\"lastName\":\"Ito\",\"password\":\"secret123\"}\n";
+
+        List<RowResult> rows = new ArrayList<>();
+        UserImportResponse response = importUsers(ndjson, UserImportService.Format.NDJSON, rows);
+
+        assertEquals(2, response.getCreated());
+        assertEquals(List.of(2L, 3L), rows.stream()
+                .filter(row -> row.getStatus() == RowStatus.INVALID)
+                .map(RowResult::getLine)
+                .toList());
+        assertTrue(userRepository.findByEmail("hal" + domain).isPresent());
+    }
+
+    @Test
+    void importUsers_WritesALinePerRowThenTheTotals() throws Exception {
+        String csv = "email,firstName,lastName,password\n"
+                + "ivy" + domain + ",Ivy,Lane,secret123\n"
+                + "ivy" + domain + ",Ivy,Again,secret123\n"
+                + "jon" + domain + ",Jon,Park,secret123\n"
+                + "kit" + domain + ",Kit,Moss,secret123\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userImportService.importUsers(open(csv, UserImportService.Format.CSV), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("DUPLICATE", objectMapper.readTree(lines[1]).get("status").asText());
+        assertEquals(5, objectMapper.readTree(lines[3]).get("line").asLong());
+        JsonNode totals = objectMapper.readTree(lines[4]);
+        assertEquals(4, totals.get("total").asInt());
+        assertEquals(3, totals.get("created").asInt());
+    }
+
+    @Test
+    void open_RejectsCsvWithoutTheRequiredColumns() {
+        assertThrows(BadRequestException.class,
+                () -> open("email,name\nx" + domain + ",X\n", UserImportService.Format.CSV));
+    }
+
+    private UserImportResponse importUsers(String content, UserImportService.Format format, List<RowResult> rows) {
+        return userImportService.importUsers(open(content, format), rows::addAll);
+    }
+
+    private UserImportService.Upload open(String content, UserImportService.Format format) {
+        return userImportService.open(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
@@ -0,0 +1,111 @@
+package com.appointment.service.outbox;
+
+import com.appointment.dto.AppointmentRequest;
+import com.appointment.dto.AppointmentResponse;
+import com.appointment.entity.OutboxEvent;
+import com.appointment.entity.User;
+import com.appointment.repository.OutboxEventRepository;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.AppointmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class OutboxRelayTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        user = userRepository.findByEmail("outbox@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("outbox@example.com")
+                .password("encoded")
+                .firstName("Outbox")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void relayPending_PublishesChangesInOrderOnce() {
+        LocalDateTime start = LocalDateTime.now().plusYears(2).withNano(0);
+        AppointmentResponse created = appointmentService.createAppointment(user.getId(), AppointmentRequest.builder()
+                .title("Outbox test")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build());
+        appointmentService.cancelAppointment(created.getId());
+
+        assertEquals(2, outboxEventRepository.countByPublishedAtIsNull());
+
+        outboxRelay.relayPending();
+        outboxRelay.relayPending();
+
+        List<OutboxMessage> messages = applicationEvents.stream(OutboxMessage.class).toList();
+        assertEquals(List.of("CREATED", "CANCELLED"), messages.stream().map(OutboxMessage::getEventType).toList());
+        assertTrue(messages.stream().allMatch(m -> m.getAggregateId().equals(created.getId())));
+        assertTrue(messages.get(0).getPayload().contains("\"title\":\"Outbox test\""));
+        assertEquals(0, outboxEventRepository.countByPublishedAtIsNull());
+    }
+
+    @Test
+    void relayPending_WaitsAtIdGapUntilGracePasses() {
+        OutboxEvent first = outboxEventRepository.save(event(1L));
+        OutboxEvent inFlight = outboxEventRepository.save(event(2L));
+        OutboxEvent third = outboxEventRepository.save(event(3L));
+        // The middle id is not visible yet, as if its transaction were still open
+        outboxEventRepository.delete(inFlight);
+
+        outboxRelay.relayPending();
+
+        assertEquals(List.of(first.getAggregateId()), publishedAggregateIds());
+
+        third.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        outboxEventRepository.save(third);
+        outboxRelay.relayPending();
+
+        assertEquals(List.of(first.getAggregateId(), third.getAggregateId()), publishedAggregateIds());
+        assertEquals(0, outboxEventRepository.countByPublishedAtIsNull());
+    }
+
+    private List<Long> publishedAggregateIds() {
+        return applicationEvents.stream(OutboxMessage.class).map(OutboxMessage::getAggregateId).toList();
+    }
+
+    private static OutboxEvent event(Long aggregateId) {
+        return OutboxEvent.builder()
+                .aggregateType("Appointment")
+                .aggregateId(aggregateId)
+                .eventType("CREATED")
+                .payload("{}")
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.appointment.service.registration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailBloomFilterTest {
+
+    @Test
+    void mightContain_NeverMissesAnAddedEmail() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    void mightContain_RarelyMatchesAnEmailThatWasNotAdded() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("someone" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+        // Sized for about 1% at capacity
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+    }
+}
@@ -0,0 +1,71 @@
+package com.appointment.service.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void advanceTo_ExpiresEntriesOnlyOnceTheirDeadlineHasPassed() {
+        HierarchicalTimingWheel<Long, String> wheel = new HierarchicalTimingWheel<>(TICK, 2, 3, 0);
+        wheel.schedule(1L, 5_000, "a");
+        wheel.schedule(2L, 30_000, "b");
+
+        assertEquals(List.of(), wheel.advanceTo(4_999));
+        assertEquals(List.of("a"), wheel.advanceTo(5_000));
+        assertEquals(List.of(), wheel.advanceTo(29_000));
+        assertEquals(List.of("b"), wheel.advanceTo(31_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelAndReschedule_ReplaceThePendingEntry() {
+        HierarchicalTimingWheel<Long, String> wheel = new HierarchicalTimingWheel<>(TICK, 2, 3, 0);
+        wheel.schedule(1L, 10_000, "first");
+        wheel.schedule(1L, 20_000, "second");
+        wheel.schedule(2L, 10_000, "cancelled");
+
+        assertTrue(wheel.cancel(2L));
+        assertFalse(wheel.cancel(2L));
+        assertEquals(List.of(), wheel.advanceTo(15_000));
+        assertEquals(List.of("second"), wheel.advanceTo(20_000));
+    }
+
+    @Test
+    void schedule_PastDeadlineExpiresOnNextAdvance() {
+        HierarchicalTimingWheel<Long, String> wheel = new HierarchicalTimingWheel<>(TICK, 2, 3, 100_000);
+        wheel.schedule(1L, 50_000, "late");
+
+        assertEquals(List.of("late"), wheel.advanceTo(100_000));
+    }
+
+    @Test
+    void advanceTo_MatchesDeadlinesAcrossLevelsAndBeyondTheWheelSpan() {
+        // 4 buckets x 3 levels spans 64 ticks, so most deadlines cascade and some are parked
+        HierarchicalTimingWheel<Long, Long> wheel = new HierarchicalTimingWheel<>(TICK, 2, 3, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (long key = 0; key < 500; key++) {
+            long deadline = random.nextInt(300) * TICK;
+            deadlines.add(deadline);
+            wheel.schedule(key, deadline, key);
+        }
+
+        for (long now = 0; now < 300 * TICK; now += TICK * (1 + random.nextInt(5))) {
+            for (long key : wheel.advanceTo(now)) {
+                long deadline = deadlines.get((int) key);
+                assertTrue(deadline <= now && deadline > now - 5 * TICK,
+                        "entry " + key + " due at " + deadline + " expired at " + now);
+            }
+        }
+        wheel.advanceTo(300 * TICK);
+        assertEquals(0, wheel.size());
+    }
+}
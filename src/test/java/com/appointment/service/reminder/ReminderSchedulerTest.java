@@ -0,0 +1,144 @@
+package com.appointment.service.reminder;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"app.reminders.enabled=true", "app.reminders.tick-ms=50"})
+@ActiveProfiles("test")
+class ReminderSchedulerTest {
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RecordingReminderSender sender;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        entityManagerFactory.getCache().evictAll();
+        fireDue();
+        sender.sent.clear();
+        user = userRepository.findByEmail("reminder@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("reminder@example.com")
+                .password("encoded")
+                .firstName("Reminder")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void fireDue_DoesNotRepeatAReminderAfterARestartOrATitleEdit() throws InterruptedException {
+        Appointment soon = appointmentRepository.save(appointment(LocalDateTime.now().plusMinutes(30)));
+        reminderScheduler.refresh();
+        fireDue();
+        assertEquals(List.of(soon.getId()), sentIds());
+
+        // As another node would, then as this node does on startup
+        jdbcTemplate.update("UPDATE appointments SET title = 'Renamed', updated_at = ? WHERE id = ?",
+                LocalDateTime.now(), soon.getId());
+        reminderScheduler.refresh();
+        reminderScheduler.loadUpcoming();
+        fireDue();
+
+        assertEquals(List.of(soon.getId()), sentIds());
+    }
+
+    @Test
+    void fireDue_RemindsAgainAfterAMoveAndSkipsCancellationsFromElsewhere() throws InterruptedException {
+        Appointment moved = appointmentRepository.save(appointment(LocalDateTime.now().plusMinutes(30)));
+        reminderScheduler.refresh();
+        fireDue();
+        sender.sent.clear();
+
+        jdbcTemplate.update("UPDATE appointments SET start_time = ?, end_time = ?, updated_at = ? WHERE id = ?",
+                moved.getStartTime().plusMinutes(5), moved.getEndTime().plusMinutes(5), LocalDateTime.now(), moved.getId());
+        reminderScheduler.refresh();
+        fireDue();
+        assertEquals(List.of(moved.getId()), sentIds());
+
+        Appointment later = appointmentRepository.save(appointment(LocalDateTime.now().plusMinutes(50)));
+        reminderScheduler.refresh();
+        // Cancelled before this node's refresh has seen it: the claim refuses the send
+        jdbcTemplate.update("UPDATE appointments SET status = 'CANCELLED', updated_at = ? WHERE id = ?",
+                LocalDateTime.now(), later.getId());
+        fireDue();
+
+        assertEquals(List.of(moved.getId()), sentIds());
+    }
+
+    // A reminder already due goes out on the wheel's next tick
+    private void fireDue() throws InterruptedException {
+        Thread.sleep(100);
+        reminderScheduler.fireDue();
+    }
+
+    private List<Long> sentIds() {
+        return sender.sent.stream()
+                .filter(reminder -> reminder.getUserEmail().equals(user.getEmail()))
+                .map(Reminder::getAppointmentId)
+                .toList();
+    }
+
+    private Appointment appointment(LocalDateTime start) {
+        return Appointment.builder()
+                .user(user)
+                .title("Reminder test")
+                .startTime(start)
+                .endTime(start.plusMinutes(15))
+                .status(Appointment.AppointmentStatus.SCHEDULED)
+                .build();
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        @Primary
+        RecordingReminderSender recordingReminderSender() {
+            return new RecordingReminderSender();
+        }
+    }
+
+    static class RecordingReminderSender implements ReminderSender {
+
+        final List<Reminder> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(Reminder reminder) {
+            sent.add(reminder);
+        }
+    }
+}
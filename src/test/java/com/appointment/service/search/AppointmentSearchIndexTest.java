@@ -0,0 +1,77 @@
+package com.appointment.service.search;
+
+import com.appointment.entity.Appointment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentSearchIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    private final AppointmentSearchIndex index = new AppointmentSearchIndex();
+
+    @Test
+    void search_CombinesTextEmailStatusAndDateFilters() {
+        index.upsert(document(1, "Dental check-up", "Bring x-ray", "ann@example.com", Appointment.AppointmentStatus.SCHEDULED, 0));
+        index.upsert(document(2, "Dental cleaning", null, "bob@example.com", Appointment.AppointmentStatus.SCHEDULED, 1));
+        index.upsert(document(3, "Eye test", "dental referral", "Ann@Example.com", Appointment.AppointmentStatus.CANCELLED, 2));
+
+        assertEquals(List.of(1L, 2L, 3L), search(AppointmentSearchIndex.Criteria.builder().text("DENTAL").build()));
+        assertEquals(List.of(1L, 3L), search(AppointmentSearchIndex.Criteria.builder().text("dental").userEmail("ann@example.com").build()));
+        assertEquals(List.of(3L), search(AppointmentSearchIndex.Criteria.builder().status(Appointment.AppointmentStatus.CANCELLED).build()));
+        assertEquals(List.of(2L), search(AppointmentSearchIndex.Criteria.builder().from(BASE.plusDays(1)).to(BASE.plusDays(2)).build()));
+        assertEquals(List.of(1L), search(AppointmentSearchIndex.Criteria.builder().text("x ray dental").build()));
+        assertEquals(List.of(), search(AppointmentSearchIndex.Criteria.builder().text("dental surgery").build()));
+    }
+
+    @Test
+    void upsertAndRemove_ReplaceIndexedVersions() {
+        index.upsert(document(1, "Dental check-up", null, "ann@example.com", Appointment.AppointmentStatus.SCHEDULED, 0));
+        index.upsert(document(1, "Eye test", null, "ann@example.com", Appointment.AppointmentStatus.SCHEDULED, 0));
+        index.upsert(document(2, "Eye exam", null, "ann@example.com", Appointment.AppointmentStatus.SCHEDULED, 1));
+
+        assertEquals(List.of(), search(AppointmentSearchIndex.Criteria.builder().text("dental").build()));
+        assertEquals(List.of(1L), search(AppointmentSearchIndex.Criteria.builder().text("eye test").build()));
+
+        assertTrue(index.remove(2));
+        assertEquals(List.of(1L), search(AppointmentSearchIndex.Criteria.builder().text("eye").build()));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void search_ReturnsEarliestMatchesUpToLimitWithTotal() {
+        // Enough replacements to trigger compaction along the way
+        for (int round = 0; round < 3; round++) {
+            for (long id = 0; id < 10_000; id++) {
+                index.upsert(document(id, "Checkup " + round, null, "user" + (id % 7) + "@example.com",
+                        Appointment.AppointmentStatus.SCHEDULED, (int) (10_000 - id)));
+            }
+        }
+
+        AppointmentSearchIndex.Result result = index.search(AppointmentSearchIndex.Criteria.builder().text("checkup 2").build(), 3);
+        assertEquals(10_000, result.getTotal());
+        assertEquals(List.of(9_999L, 9_998L, 9_997L), result.getAppointmentIds());
+        assertEquals(0, index.search(AppointmentSearchIndex.Criteria.builder().text("checkup 1").build(), 3).getTotal());
+        assertEquals(10_000, index.size());
+    }
+
+    private List<Long> search(AppointmentSearchIndex.Criteria criteria) {
+        return index.search(criteria, 10).getAppointmentIds();
+    }
+
+    private static AppointmentSearchIndex.Document document(long id, String title, String description, String email,
+                                                            Appointment.AppointmentStatus status, int dayOffset) {
+        return AppointmentSearchIndex.Document.builder()
+                .appointmentId(id)
+                .title(title)
+                .description(description)
+                .userEmail(email)
+                .status(status)
+                .startTime(BASE.plusDays(dayOffset))
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.appointment.service.search;
+
+import com.appointment.entity.Appointment;
+import com.appointment.entity.User;
+import com.appointment.repository.AppointmentRepository;
+import com.appointment.repository.UserRepository;
+import com.appointment.service.AppointmentArchiveService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentSearchServiceTest {
+
+    @Autowired
+    private AppointmentSearchService searchService;
+
+    @Autowired
+    private AppointmentArchiveService archiveService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        searchService.reconcile();
+        user = userRepository.findByEmail("search@example.com").orElseGet(() -> userRepository.save(User.builder()
+                .email("search@example.com")
+                .password("encoded")
+                .firstName("Search")
+                .lastName("User")
+                .role(User.UserRole.USER)
+                .build()));
+    }
+
+    @Test
+    void archiveOldAppointments_RemovesArchivedRowsFromTheIndex() {
+        appointmentRepository.save(appointment(LocalDateTime.now().minusYears(1)));
+        appointmentRepository.save(appointment(LocalDateTime.now().plusDays(1)));
+        searchService.refresh();
+        assertEquals(2, indexed());
+
+        assertEquals(1, archiveService.archiveOldAppointments());
+
+        assertEquals(1, indexed());
+    }
+
+    @Test
+    void reconcile_RemovesRowsDeletedElsewhere() {
+        Appointment kept = appointmentRepository.save(appointment(LocalDateTime.now().plusDays(1)));
+        Appointment deleted = appointmentRepository.save(appointment(LocalDateTime.now().plusDays(2)));
+        searchService.refresh();
+        assertEquals(2, indexed());
+
+        // As another node would: no event here, and no row left for the refresh to see
+        jdbcTemplate.update("DELETE FROM appointments WHERE id = ?", deleted.getId());
+        searchService.refresh();
+        assertEquals(2, indexed());
+
+        searchService.reconcile();
+
+        assertEquals(1, indexed());
+        assertTrue(appointmentRepository.existsById(kept.getId()));
+    }
+
+    private int indexed() {
+        return (int) meterRegistry.get("appointment.search.indexed").gauge().value();
+    }
+
+    private Appointment appointment(LocalDateTime start) {
+        return Appointment.builder()
+                .user(user)
+                .title("Search test")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .status(Appointment.AppointmentStatus.SCHEDULED)
+                .build();
+    }
+}
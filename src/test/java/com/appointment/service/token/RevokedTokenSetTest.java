@@ -0,0 +1,70 @@
+package com.appointment.service.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevokedTokenSetTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void contains_FindsRevokedIdsInAnyCase() {
+        String jti = UUID.randomUUID().toString();
+        RevokedTokenSet set = RevokedTokenSet.EMPTY.with(List.of(RevokedTokenSet.Entry.of(jti, NOW + 1)), NOW);
+
+        assertTrue(set.contains(jti));
+        assertTrue(set.contains(jti.toUpperCase()));
+        assertFalse(set.contains(UUID.randomUUID().toString()));
+        assertFalse(RevokedTokenSet.EMPTY.contains(jti));
+    }
+
+    @Test
+    void contains_TreatsIdsThatAreNotUuidsAsRevoked() {
+        assertTrue(RevokedTokenSet.EMPTY.contains(null));
+        assertTrue(RevokedTokenSet.EMPTY.contains("not-a-uuid"));
+        assertTrue(RevokedTokenSet.EMPTY.contains("zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"));
+        assertTrue(RevokedTokenSet.EMPTY.contains("0123456780123-4567-89ab-cdef01234567"));
+    }
+
+    @Test
+    void with_DropsExpiredEntriesAndDuplicates() {
+        String expiring = UUID.randomUUID().toString();
+        String lasting = UUID.randomUUID().toString();
+        RevokedTokenSet set = RevokedTokenSet.EMPTY.with(List.of(
+                RevokedTokenSet.Entry.of(expiring, NOW + 10),
+                RevokedTokenSet.Entry.of(lasting, NOW + 100),
+                RevokedTokenSet.Entry.of(lasting, NOW + 100)), NOW);
+        assertEquals(2, set.size());
+
+        // Nothing new and nothing expired: the same set is kept
+        assertSame(set, set.with(List.of(RevokedTokenSet.Entry.of(lasting, NOW + 100)), NOW + 5));
+
+        RevokedTokenSet later = set.with(List.of(), NOW + 10);
+        assertEquals(1, later.size());
+        assertFalse(later.contains(expiring));
+        assertTrue(later.contains(lasting));
+    }
+
+    @Test
+    void contains_IsExactForLargeSets() {
+        List<RevokedTokenSet.Entry> entries = new ArrayList<>();
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String jti = UUID.randomUUID().toString();
+            revoked.add(jti);
+            entries.add(RevokedTokenSet.Entry.of(jti, NOW + 1));
+        }
+        RevokedTokenSet set = RevokedTokenSet.EMPTY.with(entries, NOW);
+
+        assertEquals(20_000, set.size());
+        revoked.forEach(jti -> assertTrue(set.contains(jti)));
+        for (int i = 0; i < 100_000; i++) {
+            assertFalse(set.contains(UUID.randomUUID().toString()));
+        }
+    }
+}
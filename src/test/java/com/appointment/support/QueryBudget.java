@@ -0,0 +1,33 @@
+package com.appointment.support;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fails a test when a call issues more SQL statements than its budget.
+ * <p>
+ * Counting relies on the datasource-proxy installed by SqlStatisticsConfig and is
+ * per thread, so the call must run on the test thread (MockMvc does).
+ */
+public final class QueryBudget {
+    
+    private QueryBudget() {
+    }
+    
+    public static <T> T assertWithinBudget(int maxStatements, Callable<T> call) throws Exception {
+        QueryCountHolder.clear();
+        T result = call.call();
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        if (count.getTotal() > maxStatements) {
+            fail(String.format("Query budget exceeded: expected at most %d statements but %d were issued "
+                            + "(select=%d, insert=%d, update=%d, delete=%d, other=%d, %d ms)",
+                    maxStatements, count.getTotal(), count.getSelect(), count.getInsert(),
+                    count.getUpdate(), count.getDelete(), count.getOther(), count.getTime()));
+        }
+        return result;
+    }
+}